@@ -30,7 +30,7 @@ val prepareDockerfile by tasks.registering(Dockerfile::class) {
     group = "Build"
     dependsOn(prepareDockerOutput)
     destFile.set(project.file("build/docker/Dockerfile"))
-    from("amazoncorretto:17")
+    from("amazoncorretto:21")
 
     addFile("${project.name}-${project.version}/bin", "/var/lib/${project.name}/bin")
     addFile("${project.name}-${project.version}/lib", "/var/lib/${project.name}/lib")
@@ -78,4 +78,11 @@ dependencies {
     implementation("com.google.code.findbugs:jsr305:3.0.2")
 
     implementation("io.qameta.allure:allure-model:2.24.0")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.1")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
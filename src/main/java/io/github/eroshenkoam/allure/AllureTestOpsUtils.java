@@ -5,7 +5,8 @@ import picocli.CommandLine;
 public class AllureTestOpsUtils {
 
     public static void main(String[] args) {
-        final CommandLine cmd = new CommandLine(new MainCommand());
+        final CommandLine cmd = new CommandLine(new MainCommand())
+                .setCaseInsensitiveEnumValuesAllowed(true);
         final CommandLine.ParseResult parseResult = cmd.parseArgs(args);
         if (!parseResult.errors().isEmpty()) {
             System.out.println(cmd.getUsageMessage());
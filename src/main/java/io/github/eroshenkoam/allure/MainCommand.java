@@ -8,7 +8,9 @@ import picocli.CommandLine;
         name = "allure-testops-utils", mixinStandardHelpOptions = true,
         subcommands = {
                 BackupTestCasesCommand.class,
+                BackupProjectsCommand.class,
                 RestoreTestCasesCommand.class,
+                VerifyBackupCommand.class,
                 CrowdSyncGroupsCommand.class,
                 GitlabSyncGroupsCommand.class,
                 LdapSyncGroupsCommand.class,
@@ -0,0 +1,455 @@
+package io.github.eroshenkoam.allure.backup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eroshenkoam.allure.client.transfer.Transfers;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import okio.BufferedSource;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Keeps all entries in single append-only file {@code backup.pack} with trailing index.
+ * <p>
+ * Layout: entry contents one after another, deflated index of entries
+ * and the trailer with index offset, index length and format magic.
+ * Entries are compressed unless their content does not compress (images, videos),
+ * readers seek to entries through the index.
+ * <p>
+ * Entry is prepared in temporary file and appended with {@link FileChannel#transferTo},
+ * so concurrent writers hold the archive only while copying finished entries.
+ * The archive is written to temporary file and replaces the previous one on close, unless it was discarded.
+ */
+public final class ArchiveBackupStorage implements BackupStorage {
+
+    public static final String FILE_NAME = "backup.pack";
+
+    private static final long MAGIC = 0x41544F5041434B31L;
+    private static final int TRAILER_SIZE = 3 * Long.BYTES;
+
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final double MIN_COMPRESSION_RATIO = 0.9;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path dir;
+    private final Path file;
+    private final Path tempFile;
+    private final FileChannel channel;
+    private final NavigableMap<String, Entry> index = new ConcurrentSkipListMap<>();
+
+    private long position;
+    private boolean closed;
+    private boolean discarded;
+
+    private ArchiveBackupStorage(final Path dir, final Path tempFile, final FileChannel channel) {
+        this.dir = dir;
+        this.file = dir.resolve(FILE_NAME);
+        this.tempFile = tempFile;
+        this.channel = channel;
+    }
+
+    public static ArchiveBackupStorage create(final Path dir) throws IOException {
+        Files.createDirectories(dir);
+        final Path tempFile = dir.resolve(FILE_NAME + ".tmp");
+        final FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        return new ArchiveBackupStorage(dir, tempFile, channel);
+    }
+
+    public static ArchiveBackupStorage open(final Path dir) throws IOException {
+        final FileChannel channel = FileChannel.open(dir.resolve(FILE_NAME), StandardOpenOption.READ);
+        final ArchiveBackupStorage storage = new ArchiveBackupStorage(dir, null, channel);
+        try {
+            storage.readIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return storage;
+    }
+
+    @Override
+    public boolean exists(final String name) {
+        return index.containsKey(name) || index.containsKey(BlobStore.getRefName(name));
+    }
+
+    @Override
+    public long size(final String name) throws IOException {
+        final Entry entry = index.get(name);
+        if (Objects.nonNull(entry)) {
+            return entry.getSize();
+        }
+        return Files.size(getBlobFile(name));
+    }
+
+    @Override
+    public List<String> list(final String prefix) {
+        return new ArrayList<>(index.subMap(prefix, true, prefix + Character.MAX_VALUE, true).keySet());
+    }
+
+    @Override
+    public InputStream open(final String name) throws IOException {
+        final Entry entry = index.get(name);
+        if (Objects.isNull(entry)) {
+            return Files.newInputStream(getBlobFile(name));
+        }
+        final InputStream content = new BufferedInputStream(
+                new EntryInputStream(channel, entry.getOffset(), entry.getLength()), BUFFER_SIZE
+        );
+        return Method.DEFLATE.equals(entry.getMethod()) ? new InflaterInputStream(content) : content;
+    }
+
+    /**
+     * Entries are kept inside the archive, only contents from the blob store are available as files.
+     */
+    @Override
+    public Optional<Path> getFile(final String name) throws IOException {
+        if (index.containsKey(name) || !index.containsKey(BlobStore.getRefName(name))) {
+            return Optional.empty();
+        }
+        return Optional.of(getBlobFile(name));
+    }
+
+    @Override
+    public OutputStream create(final String name) throws IOException {
+        checkWritable();
+        final Path raw = Files.createTempFile(dir, "entry", ".tmp");
+        return new FilterOutputStream(Files.newOutputStream(raw)) {
+
+            private boolean closed;
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    super.close();
+                    append(name, raw);
+                } finally {
+                    Files.deleteIfExists(raw);
+                }
+            }
+        };
+    }
+
+    @Override
+    public long write(final String name, final BufferedSource content) throws IOException {
+        checkWritable();
+        final Path raw = Files.createTempFile(dir, "entry", ".tmp");
+        try {
+            final long length;
+            try (FileChannel rawChannel = FileChannel.open(raw, StandardOpenOption.WRITE)) {
+                length = Transfers.transfer(content, rawChannel);
+            }
+            append(name, raw);
+            return length;
+        } finally {
+            Files.deleteIfExists(raw);
+        }
+    }
+
+    /**
+     * Copies stored entries of another archive as they are, without recompression.
+     */
+    @Override
+    public void link(final BackupStorage base, final String prefix) throws IOException {
+        if (!(base instanceof ArchiveBackupStorage)) {
+            BackupStorage.super.link(base, prefix);
+            return;
+        }
+        checkWritable();
+        final ArchiveBackupStorage archive = (ArchiveBackupStorage) base;
+        for (String name : archive.list(prefix)) {
+            final Entry entry = archive.index.get(name);
+            synchronized (this) {
+                final long offset = position;
+                copy(archive.channel, entry.getOffset(), entry.getLength());
+                index.put(name, new Entry()
+                        .setOffset(offset)
+                        .setLength(entry.getLength())
+                        .setSize(entry.getSize())
+                        .setMethod(entry.getMethod()));
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary archive on close instead of replacing the previous one.
+     */
+    @Override
+    public synchronized void discard() {
+        discarded = true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (Objects.isNull(tempFile)) {
+            channel.close();
+            return;
+        }
+        if (discarded) {
+            channel.close();
+            Files.deleteIfExists(tempFile);
+            return;
+        }
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (OutputStream output = new DeflaterOutputStream(bytes, deflater)) {
+                MAPPER.writeValue(output, index);
+            } finally {
+                deflater.end();
+            }
+            final long indexOffset = position;
+            writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+            writeFully(ByteBuffer.allocate(TRAILER_SIZE)
+                    .putLong(indexOffset)
+                    .putLong(bytes.size())
+                    .putLong(MAGIC)
+                    .flip());
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void append(final String name, final Path raw) throws IOException {
+        final long size = Files.size(raw);
+        if (!isCompressible(raw)) {
+            appendFile(name, raw, size, Method.STORE);
+            return;
+        }
+        final Path compressed = Files.createTempFile(dir, "entry", ".tmp");
+        try {
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (InputStream input = Files.newInputStream(raw);
+                 OutputStream output = new DeflaterOutputStream(Files.newOutputStream(compressed), deflater,
+                         BUFFER_SIZE)) {
+                input.transferTo(output);
+            } finally {
+                deflater.end();
+            }
+            if (Files.size(compressed) < size) {
+                appendFile(name, compressed, size, Method.DEFLATE);
+            } else {
+                appendFile(name, raw, size, Method.STORE);
+            }
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private void appendFile(final String name, final Path content, final long size, final Method method)
+            throws IOException {
+        try (FileChannel source = FileChannel.open(content, StandardOpenOption.READ)) {
+            final long length = source.size();
+            synchronized (this) {
+                checkWritable();
+                final long offset = position;
+                copy(source, 0, length);
+                index.put(name, new Entry()
+                        .setOffset(offset)
+                        .setLength(length)
+                        .setSize(size)
+                        .setMethod(method));
+            }
+        }
+    }
+
+    /**
+     * Copies bytes to the end of the archive, must be called holding the archive lock.
+     */
+    private void copy(final FileChannel source, final long offset, final long length) throws IOException {
+        channel.position(position);
+        long copied = 0;
+        while (copied < length) {
+            copied += source.transferTo(offset + copied, length - copied, channel);
+        }
+        position += length;
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void readIndex() throws IOException {
+        final long size = channel.size();
+        if (size < TRAILER_SIZE) {
+            throw new IOException(String.format("Not a backup archive: %s", file));
+        }
+        final ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        while (trailer.hasRemaining()) {
+            if (channel.read(trailer, size - TRAILER_SIZE + trailer.position()) < 0) {
+                throw new IOException(String.format("Unexpected end of backup archive: %s", file));
+            }
+        }
+        trailer.flip();
+        final long indexOffset = trailer.getLong();
+        final long indexLength = trailer.getLong();
+        if (trailer.getLong() != MAGIC || indexOffset + indexLength + TRAILER_SIZE != size) {
+            throw new IOException(String.format("Not a backup archive: %s", file));
+        }
+        try (InputStream input = new InflaterInputStream(new BufferedInputStream(
+                new EntryInputStream(channel, indexOffset, indexLength), BUFFER_SIZE))) {
+            index.putAll(MAPPER.readValue(input, new TypeReference<Map<String, Entry>>() {
+            }));
+        }
+        position = indexOffset;
+    }
+
+    private Path getBlobFile(final String name) throws IOException {
+        final String refName = BlobStore.getRefName(name);
+        if (!index.containsKey(refName)) {
+            throw new NoSuchFileException(String.format("%s!/%s", file, name));
+        }
+        return BlobStore.getBlobFile(dir, BlobStore.readRef(this, refName));
+    }
+
+    private void checkWritable() throws IOException {
+        if (Objects.isNull(tempFile) || closed) {
+            throw new IOException(String.format("Backup archive is not open for writing: %s", file));
+        }
+    }
+
+    /**
+     * Checks whether the beginning of the content compresses well enough to be worth compressing.
+     */
+    private static boolean isCompressible(final Path raw) throws IOException {
+        final byte[] sample;
+        try (InputStream input = Files.newInputStream(raw)) {
+            sample = input.readNBytes(SAMPLE_SIZE);
+        }
+        if (sample.length == 0) {
+            return false;
+        }
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            final byte[] buffer = new byte[sample.length];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buffer);
+            }
+            return compressed < sample.length * MIN_COMPRESSION_RATIO;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Storage method of entry content.
+     */
+    public enum Method {
+
+        STORE,
+        DEFLATE
+
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Entry {
+
+        private long offset;
+        private long length;
+        private long size;
+        private Method method;
+
+    }
+
+    /**
+     * Reads range of the archive with positional reads, so entries may be read concurrently.
+     */
+    private static final class EntryInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        EntryInputStream(final FileChannel channel, final long offset, final long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final int count = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+            if (count < 0) {
+                throw new IOException("Unexpected end of backup archive");
+            }
+            position += count;
+            remaining -= count;
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0, Math.min(n, remaining));
+            position += skipped;
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+
+    }
+
+}
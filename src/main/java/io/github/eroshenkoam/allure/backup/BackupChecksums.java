@@ -0,0 +1,116 @@
+package io.github.eroshenkoam.allure.backup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Size and SHA-256 of every backup entry, written next to the backup manifest.
+ */
+@Data
+@Accessors(chain = true)
+public class BackupChecksums {
+
+    public static final String FILE_NAME = "checksums.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+    private static final long MAP_CHUNK_SIZE = 256L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Map<String, Checksum> entries = new TreeMap<>();
+
+    /**
+     * Reads checksums from backup directory, returns empty checksums if there are none.
+     */
+    public static BackupChecksums read(final Path backupDir) throws IOException {
+        final Path file = backupDir.resolve(FILE_NAME);
+        if (Files.notExists(file)) {
+            return new BackupChecksums();
+        }
+        return MAPPER.readValue(file.toFile(), BackupChecksums.class);
+    }
+
+    public void write(final Path backupDir) throws IOException {
+        final Path file = backupDir.resolve(FILE_NAME);
+        final Path temp = Files.createTempFile(backupDir, FILE_NAME, ".tmp");
+        try {
+            MAPPER.writeValue(temp.toFile(), this);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static Checksum compute(final InputStream input) throws IOException {
+        final MessageDigest digest = createDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int count;
+        while ((count = input.read(buffer)) >= 0) {
+            digest.update(buffer, 0, count);
+            size += count;
+        }
+        return new Checksum().setSize(size).setSha256(HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Computes checksum of file, large files are read through memory mapping.
+     */
+    public static Checksum compute(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                try (InputStream input = Files.newInputStream(file)) {
+                    return compute(input);
+                }
+            }
+            final MessageDigest digest = createDigest();
+            long position = 0;
+            while (position < size) {
+                final long length = Math.min(MAP_CHUNK_SIZE, size - position);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                digest.update(buffer);
+                position += length;
+            }
+            return new Checksum().setSize(size).setSha256(HexFormat.of().formatHex(digest.digest()));
+        }
+    }
+
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Checksum {
+
+        private Long size;
+        private String sha256;
+
+    }
+
+}
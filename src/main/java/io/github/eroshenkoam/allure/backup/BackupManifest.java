@@ -0,0 +1,68 @@
+package io.github.eroshenkoam.allure.backup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Describes backup snapshot: when it was taken and which state of every test case it contains.
+ * <p>
+ * Test case is considered unchanged when both its last modified date and its latest audit entry
+ * are the same as recorded in the manifest.
+ */
+@Data
+@Accessors(chain = true)
+public class BackupManifest {
+
+    public static final String FILE_NAME = "manifest.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private Long projectId;
+    private Long backupTime;
+
+    private Map<Long, Fingerprint> testCases = new TreeMap<>();
+
+    /**
+     * Reads manifest from backup directory, returns empty manifest if there is none.
+     */
+    public static BackupManifest read(final Path backupDir) throws IOException {
+        final Path file = backupDir.resolve(FILE_NAME);
+        if (Files.notExists(file)) {
+            return new BackupManifest();
+        }
+        return MAPPER.readValue(file.toFile(), BackupManifest.class);
+    }
+
+    public void write(final Path backupDir) throws IOException {
+        final Path file = backupDir.resolve(FILE_NAME);
+        final Path temp = Files.createTempFile(backupDir, FILE_NAME, ".tmp");
+        try {
+            MAPPER.writeValue(temp.toFile(), this);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Fingerprint {
+
+        private Long lastModifiedDate;
+        private Long auditId;
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.eroshenkoam.allure.backup;
+
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of backup entries addressed by relative names like {@code tc-1/testcase.json}.
+ * <p>
+ * Entries of one entity share the entity prefix ({@code tc-1/}), so they can be listed
+ * and linked from another backup together.
+ */
+public interface BackupStorage extends Closeable {
+
+    /**
+     * Opens storage in backup directory for writing.
+     */
+    static BackupStorage create(final Format format, final Path backupDir) throws IOException {
+        if (Format.ARCHIVE.equals(format)) {
+            return ArchiveBackupStorage.create(backupDir);
+        }
+        return new DirectoryBackupStorage(backupDir);
+    }
+
+    /**
+     * Opens existing storage in backup directory for reading.
+     */
+    static BackupStorage open(final Format format, final Path backupDir) throws IOException {
+        if (Format.ARCHIVE.equals(format)) {
+            return ArchiveBackupStorage.open(backupDir);
+        }
+        return new DirectoryBackupStorage(backupDir);
+    }
+
+    boolean exists(String name) throws IOException;
+
+    /**
+     * Size of entry content in bytes.
+     */
+    long size(String name) throws IOException;
+
+    /**
+     * Names of entries starting with the prefix.
+     */
+    List<String> list(String prefix) throws IOException;
+
+    InputStream open(String name) throws IOException;
+
+    /**
+     * Returns file with entry content, if the storage keeps entries as plain files.
+     */
+    Optional<Path> getFile(String name) throws IOException;
+
+    /**
+     * Creates entry, the entry becomes visible when returned stream is closed.
+     */
+    OutputStream create(String name) throws IOException;
+
+    /**
+     * Writes entry from source without buffering whole content on heap.
+     *
+     * @return number of written bytes
+     */
+    default long write(final String name, final BufferedSource content) throws IOException {
+        try (Sink sink = Okio.sink(create(name))) {
+            return content.readAll(sink);
+        }
+    }
+
+    /**
+     * Copies entries with the prefix from another backup.
+     */
+    default void link(final BackupStorage base, final String prefix) throws IOException {
+        for (String name : base.list(prefix)) {
+            try (InputStream input = base.open(name); BufferedSource source = Okio.buffer(Okio.source(input))) {
+                write(name, source);
+            }
+        }
+    }
+
+    /**
+     * Drops entries written since the storage was created, so the previous backup stays as it was.
+     * Directory storage writes entries in place, so they are kept.
+     */
+    default void discard() throws IOException {
+    }
+
+    /**
+     * Layout of backup on disk.
+     */
+    enum Format {
+
+        DIRECTORY,
+        ARCHIVE
+
+    }
+
+}
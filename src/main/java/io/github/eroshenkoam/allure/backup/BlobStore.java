@@ -0,0 +1,172 @@
+package io.github.eroshenkoam.allure.backup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okio.BufferedSource;
+import okio.HashingSink;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed storage of attachment contents.
+ * <p>
+ * Every distinct content is stored once as {@code blobs/<aa>/<sha256>}, entities refer to it
+ * with reference entries containing the hash. The index maps attachment id and content length
+ * to the hash of already stored content, so known attachments are not downloaded again.
+ * Blobs missing in this store are linked from the base store, if there is one.
+ */
+public class BlobStore {
+
+    public static final String DIR_NAME = "blobs";
+    public static final String REF_SUFFIX = ".ref";
+
+    private static final String INDEX_FILE_NAME = "index.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path root;
+    private final Path baseRoot;
+    private final Map<String, String> index = new ConcurrentHashMap<>();
+
+    public BlobStore(final Path backupDir, final Path baseDir) throws IOException {
+        this.root = backupDir.resolve(DIR_NAME);
+        this.baseRoot = Objects.isNull(baseDir) ? null : baseDir.resolve(DIR_NAME);
+        Files.createDirectories(root);
+        if (Objects.nonNull(baseRoot) && !baseRoot.equals(root)) {
+            readIndex(baseRoot);
+        }
+        readIndex(root);
+    }
+
+    /**
+     * Returns hash of already stored content of given attachment.
+     */
+    public Optional<String> getKnownHash(final Long attachmentId, final Long contentLength) throws IOException {
+        final String hash = index.get(getIndexKey(attachmentId, contentLength));
+        if (Objects.nonNull(hash) && contains(hash)) {
+            return Optional.of(hash);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Stores content unless the same content is already stored.
+     *
+     * @return hash of the content
+     */
+    public String put(final Long attachmentId, final BufferedSource content) throws IOException {
+        final Path temp = Files.createTempFile(root, "blob", ".tmp");
+        try {
+            final long length;
+            final String hash;
+            try (HashingSink sink = HashingSink.sha256(Okio.sink(temp))) {
+                length = content.readAll(sink);
+                hash = sink.hash().hex();
+            }
+            final Path blob = getBlob(hash);
+            if (!contains(hash)) {
+                Files.createDirectories(blob.getParent());
+                try {
+                    Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // the same content was stored concurrently
+                }
+            }
+            index.put(getIndexKey(attachmentId, length), hash);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Checks that content is stored, linking it from the base store when necessary.
+     */
+    public boolean contains(final String hash) throws IOException {
+        final Path blob = getBlob(hash);
+        if (Files.exists(blob)) {
+            return true;
+        }
+        if (Objects.isNull(baseRoot) || baseRoot.equals(root)) {
+            return false;
+        }
+        final Path baseBlob = baseRoot.resolve(blob.getParent().getFileName()).resolve(hash);
+        if (Files.notExists(baseBlob)) {
+            return false;
+        }
+        Files.createDirectories(blob.getParent());
+        try {
+            Files.createLink(blob, baseBlob);
+        } catch (FileAlreadyExistsException e) {
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(baseBlob, blob, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    public Path getBlob(final String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    public void saveIndex() throws IOException {
+        final Path file = root.resolve(INDEX_FILE_NAME);
+        final Path temp = Files.createTempFile(root, INDEX_FILE_NAME, ".tmp");
+        try {
+            MAPPER.writeValue(temp.toFile(), new TreeMap<>(index));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static String getRefName(final String name) {
+        return name + REF_SUFFIX;
+    }
+
+    public static String readRef(final BackupStorage storage, final String refName) throws IOException {
+        try (InputStream input = storage.open(refName)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+    }
+
+    public static void writeRef(final BackupStorage storage, final String refName, final String hash)
+            throws IOException {
+        try (OutputStream output = storage.create(refName)) {
+            output.write(hash.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Blob with given hash in the blob store of backup directory.
+     */
+    public static Path getBlobFile(final Path backupDir, final String hash) {
+        return backupDir.resolve(DIR_NAME).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private void readIndex(final Path dir) throws IOException {
+        final Path file = dir.resolve(INDEX_FILE_NAME);
+        if (Files.exists(file)) {
+            index.putAll(MAPPER.readValue(file.toFile(), new TypeReference<Map<String, String>>() {
+            }));
+        }
+    }
+
+    private static String getIndexKey(final Long attachmentId, final Long contentLength) {
+        return String.format("%s:%s", attachmentId, contentLength);
+    }
+
+}
@@ -0,0 +1,136 @@
+package io.github.eroshenkoam.allure.backup;
+
+import io.github.eroshenkoam.allure.backup.BackupChecksums.Checksum;
+import okio.BufferedSource;
+import okio.HashingSource;
+import okio.Okio;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records size and SHA-256 of entries while they are written to another storage.
+ * <p>
+ * Checksums of entries linked from the base backup are taken from the base checksums,
+ * entries missing there are read once to compute them.
+ */
+public class ChecksumBackupStorage implements BackupStorage {
+
+    private final BackupStorage delegate;
+    private final BackupChecksums base;
+    private final Map<String, Checksum> checksums = new ConcurrentHashMap<>();
+
+    public ChecksumBackupStorage(final BackupStorage delegate, final BackupChecksums base) {
+        this.delegate = delegate;
+        this.base = Objects.isNull(base) ? new BackupChecksums() : base;
+    }
+
+    public BackupChecksums getChecksums() {
+        return new BackupChecksums().setEntries(new TreeMap<>(checksums));
+    }
+
+    @Override
+    public boolean exists(final String name) throws IOException {
+        return delegate.exists(name);
+    }
+
+    @Override
+    public long size(final String name) throws IOException {
+        return delegate.size(name);
+    }
+
+    @Override
+    public List<String> list(final String prefix) throws IOException {
+        return delegate.list(prefix);
+    }
+
+    @Override
+    public InputStream open(final String name) throws IOException {
+        return delegate.open(name);
+    }
+
+    @Override
+    public Optional<Path> getFile(final String name) throws IOException {
+        return delegate.getFile(name);
+    }
+
+    @Override
+    public OutputStream create(final String name) throws IOException {
+        final MessageDigest digest = BackupChecksums.createDigest();
+        return new FilterOutputStream(new DigestOutputStream(delegate.create(name), digest)) {
+
+            private long size;
+            private boolean closed;
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+                size += len;
+            }
+
+            @Override
+            public void write(final int b) throws IOException {
+                out.write(b);
+                size++;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                super.close();
+                checksums.put(name, new Checksum()
+                        .setSize(size)
+                        .setSha256(HexFormat.of().formatHex(digest.digest())));
+            }
+        };
+    }
+
+    @Override
+    public long write(final String name, final BufferedSource content) throws IOException {
+        final HashingSource hashing = HashingSource.sha256(content);
+        final long size = delegate.write(name, Okio.buffer(hashing));
+        checksums.put(name, new Checksum().setSize(size).setSha256(hashing.hash().hex()));
+        return size;
+    }
+
+    @Override
+    public void link(final BackupStorage baseStorage, final String prefix) throws IOException {
+        delegate.link(baseStorage, prefix);
+        for (String name : baseStorage.list(prefix)) {
+            final Checksum known = base.getEntries().get(name);
+            if (Objects.nonNull(known)) {
+                checksums.put(name, known);
+            } else {
+                try (InputStream input = baseStorage.open(name)) {
+                    checksums.put(name, BackupChecksums.compute(input));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void discard() throws IOException {
+        delegate.discard();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+}
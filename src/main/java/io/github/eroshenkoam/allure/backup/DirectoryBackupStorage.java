@@ -0,0 +1,158 @@
+package io.github.eroshenkoam.allure.backup;
+
+import io.github.eroshenkoam.allure.client.transfer.Transfers;
+import okio.BufferedSource;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every entry as plain file, entity prefix is a directory.
+ * <p>
+ * Entries stored in the blob store are resolved through their reference files.
+ */
+public class DirectoryBackupStorage implements BackupStorage {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+
+    public DirectoryBackupStorage(final Path root) throws IOException {
+        this.root = root;
+        Files.createDirectories(root);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public boolean exists(final String name) throws IOException {
+        return getFile(name).isPresent();
+    }
+
+    @Override
+    public long size(final String name) throws IOException {
+        return Files.size(resolve(name));
+    }
+
+    @Override
+    public List<String> list(final String prefix) throws IOException {
+        final Path dir = root.resolve(prefix);
+        final List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return names;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                final String fileName = file.getFileName().toString();
+                if (!fileName.endsWith(TEMP_SUFFIX)) {
+                    names.add(root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"));
+                }
+            }
+        }
+        names.sort(String::compareTo);
+        return names;
+    }
+
+    @Override
+    public InputStream open(final String name) throws IOException {
+        return Files.newInputStream(resolve(name));
+    }
+
+    @Override
+    public Optional<Path> getFile(final String name) throws IOException {
+        final Path file = root.resolve(name);
+        if (Files.exists(file)) {
+            return Optional.of(file);
+        }
+        final String refName = BlobStore.getRefName(name);
+        if (Files.exists(root.resolve(refName))) {
+            return Optional.of(BlobStore.getBlobFile(root, BlobStore.readRef(this, refName)));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public OutputStream create(final String name) throws IOException {
+        final Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_SUFFIX);
+        return new FilterOutputStream(Files.newOutputStream(temp)) {
+
+            private boolean closed;
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    super.close();
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        };
+    }
+
+    @Override
+    public long write(final String name, final BufferedSource content) throws IOException {
+        final Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Transfers.write(content, file);
+    }
+
+    /**
+     * Links files from another directory backup, copies them if links are not supported.
+     */
+    @Override
+    public void link(final BackupStorage base, final String prefix) throws IOException {
+        if (!(base instanceof DirectoryBackupStorage)) {
+            BackupStorage.super.link(base, prefix);
+            return;
+        }
+        final Path baseRoot = ((DirectoryBackupStorage) base).getRoot();
+        if (baseRoot.toAbsolutePath().normalize().equals(root.toAbsolutePath().normalize())) {
+            return;
+        }
+        for (String name : base.list(prefix)) {
+            final Path source = baseRoot.resolve(name);
+            final Path target = root.resolve(name);
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, source);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(source, target);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    private Path resolve(final String name) throws IOException {
+        return getFile(name).orElseThrow(() -> new NoSuchFileException(root.resolve(name).toString()));
+    }
+
+}
@@ -0,0 +1,131 @@
+package io.github.eroshenkoam.allure.backup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.eroshenkoam.allure.client.ScenarioConverter;
+import io.github.eroshenkoam.allure.client.dto.Issue;
+import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import io.github.eroshenkoam.allure.client.dto.TestCasePatch;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * SHA-256 of canonical form of every restorable section of test case.
+ * <p>
+ * Sections do not depend on ids assigned by Allure TestOps: issues are compared by integration and name,
+ * attachments by their keys, and attachment steps of scenario refer to the key of their attachment.
+ */
+@Data
+@Accessors(chain = true)
+public class TestCaseFingerprint {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final String ATTACHMENT_ID_FIELD = "attachmentId";
+
+    private String metadata;
+    private String issues;
+    private String attachments;
+    private String scenario;
+
+    /**
+     * @param attachmentKeys keys of attachments by their ids
+     */
+    public static TestCaseFingerprint of(final TestCasePatch patch,
+                                         final List<Issue> issues,
+                                         final ScenarioNormalized scenario,
+                                         final Map<Long, String> attachmentKeys) {
+        final List<String> issueKeys = new ArrayList<>();
+        for (Issue issue : Optional.ofNullable(issues).orElse(List.of())) {
+            issueKeys.add(String.format("%s/%s", issue.getIntegrationId(), issue.getName()));
+        }
+        issueKeys.sort(String::compareTo);
+        final List<String> sortedAttachmentKeys = new ArrayList<>(attachmentKeys.values());
+        sortedAttachmentKeys.sort(String::compareTo);
+        final JsonNode scenarioTree = MAPPER.valueToTree(ScenarioConverter.toScenarioV2(scenario));
+        replaceAttachmentIds(scenarioTree, attachmentKeys);
+        return new TestCaseFingerprint()
+                .setMetadata(hash(patch))
+                .setIssues(hash(issueKeys))
+                .setAttachments(hash(sortedAttachmentKeys))
+                .setScenario(hash(scenarioTree));
+    }
+
+    /**
+     * Key of attachment that does not depend on its id.
+     *
+     * @param sha256 hash of attachment content, may be null when contents are not compared
+     */
+    public static String getAttachmentKey(final TestCaseAttachment attachment, final String sha256) {
+        final String key = String.format(
+                "%s/%s/%s", attachment.getName(), attachment.getContentType(), attachment.getContentLength()
+        );
+        return Objects.isNull(sha256) ? key : key + "/" + sha256;
+    }
+
+    /**
+     * Returns sections of this fingerprint that differ from other one.
+     */
+    public Set<Section> diff(final TestCaseFingerprint other) {
+        final Set<Section> result = EnumSet.noneOf(Section.class);
+        if (!Objects.equals(metadata, other.getMetadata())) {
+            result.add(Section.METADATA);
+        }
+        if (!Objects.equals(issues, other.getIssues())) {
+            result.add(Section.ISSUES);
+        }
+        if (!Objects.equals(attachments, other.getAttachments())) {
+            result.add(Section.ATTACHMENTS);
+        }
+        if (!Objects.equals(scenario, other.getScenario())) {
+            result.add(Section.SCENARIO);
+        }
+        return result;
+    }
+
+    private static void replaceAttachmentIds(final JsonNode node, final Map<Long, String> attachmentKeys) {
+        if (node instanceof ObjectNode && node.hasNonNull(ATTACHMENT_ID_FIELD)) {
+            final String key = attachmentKeys.get(node.get(ATTACHMENT_ID_FIELD).asLong());
+            ((ObjectNode) node).put(ATTACHMENT_ID_FIELD, key);
+        }
+        node.forEach(child -> replaceAttachmentIds(child, attachmentKeys));
+    }
+
+    private static String hash(final Object value) {
+        try {
+            final byte[] canonical = MAPPER.writeValueAsString(value).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(BackupChecksums.createDigest().digest(canonical));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public enum Section {
+
+        METADATA,
+        ISSUES,
+        ATTACHMENTS,
+        SCENARIO
+
+    }
+
+}
@@ -11,6 +11,8 @@ import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 
+import java.util.List;
+
 public interface LaunchService {
 
     /**
@@ -40,6 +42,16 @@ public interface LaunchService {
                                @Query("page") int page,
                                @Query("size") int size);
 
+    /**
+     * Finds launches by rql in given order.
+     */
+    @GET("api/rs/launch/__search")
+    Call<Page<Launch>> findAll(@Query("projectId") Long projectId,
+                               @Query("rql") String rql,
+                               @Query("page") int page,
+                               @Query("size") int size,
+                               @Query("sort") List<String> sort);
+
     /**
      * Delete by launch id.
      */
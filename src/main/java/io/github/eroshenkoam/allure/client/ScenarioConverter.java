@@ -0,0 +1,110 @@
+package io.github.eroshenkoam.allure.client;
+
+import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
+import io.github.eroshenkoam.allure.client.dto.ScenarioStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.AttachmentStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.BodyStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.ExpectedBodyStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.SharedStepScenario;
+import io.github.eroshenkoam.allure.client.dto.scenario.SharedStepStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.TestCaseScenarioV2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Converts normalized scenario, as returned by Allure TestOps, into step tree accepted by
+ * {@link TestCaseScenarioService#setScenario(Long, TestCaseScenarioV2)} and
+ * {@link SharedStepScenarioService#setScenario(Long, SharedStepScenario)}.
+ * <p>
+ * Expected result of body step becomes list of {@link ExpectedBodyStep} and {@link AttachmentStep},
+ * nested expected result steps are flattened into this list in their order.
+ */
+public final class ScenarioConverter {
+
+    private ScenarioConverter() {
+    }
+
+    public static TestCaseScenarioV2 toScenarioV2(final ScenarioNormalized scenario) {
+        final TestCaseScenarioV2 result = new TestCaseScenarioV2();
+        if (Objects.nonNull(scenario) && Objects.nonNull(scenario.getRoot())
+                && Objects.nonNull(scenario.getScenarioSteps())) {
+            result.setSteps(toSteps(scenario.getScenarioSteps(), scenario.getRoot().getChildren()));
+        }
+        return result;
+    }
+
+    public static SharedStepScenario toSharedStepScenario(final ScenarioNormalized scenario) {
+        return new SharedStepScenario().setSteps(toScenarioV2(scenario).getSteps());
+    }
+
+    private static List<io.github.eroshenkoam.allure.client.dto.scenario.ScenarioStep> toSteps(
+            final Map<Long, ScenarioStep> steps,
+            final List<Long> ids) {
+        final List<io.github.eroshenkoam.allure.client.dto.scenario.ScenarioStep> result = new ArrayList<>();
+        if (Objects.isNull(ids)) {
+            return result;
+        }
+        for (Long id : ids) {
+            final ScenarioStep step = steps.get(id);
+            if (Objects.isNull(step)) {
+                continue;
+            }
+            if (Objects.nonNull(step.getSharedStepId())) {
+                result.add(new SharedStepStep().setSharedStepId(step.getSharedStepId()));
+                continue;
+            }
+            if (Objects.nonNull(step.getAttachmentId())) {
+                result.add(new AttachmentStep().setAttachmentId(step.getAttachmentId()));
+            }
+            if (Objects.nonNull(step.getBody()) || Objects.nonNull(step.getBodyJson())) {
+                result.add(new BodyStep()
+                        .setBody(step.getBody())
+                        .setBodyJson(step.getBodyJson())
+                        .setSteps(toSteps(steps, step.getChildren()))
+                        .setExpectedResultSteps(toExpectedSteps(steps, step)));
+            }
+        }
+        return result;
+    }
+
+    private static List<io.github.eroshenkoam.allure.client.dto.scenario.ScenarioStep> toExpectedSteps(
+            final Map<Long, ScenarioStep> steps,
+            final ScenarioStep step) {
+        final List<io.github.eroshenkoam.allure.client.dto.scenario.ScenarioStep> result = new ArrayList<>();
+        final ScenarioStep expectedResult = Objects.isNull(step.getExpectedResultId())
+                ? null
+                : steps.get(step.getExpectedResultId());
+        if (Objects.nonNull(expectedResult)) {
+            addExpectedSteps(steps, expectedResult.getChildren(), result);
+        } else if (Objects.nonNull(step.getExpectedResult())) {
+            result.add(new ExpectedBodyStep().setBody(step.getExpectedResult()));
+        }
+        return result;
+    }
+
+    private static void addExpectedSteps(
+            final Map<Long, ScenarioStep> steps,
+            final List<Long> ids,
+            final List<io.github.eroshenkoam.allure.client.dto.scenario.ScenarioStep> result) {
+        if (Objects.isNull(ids)) {
+            return;
+        }
+        for (Long id : ids) {
+            final ScenarioStep step = steps.get(id);
+            if (Objects.isNull(step)) {
+                continue;
+            }
+            if (Objects.nonNull(step.getAttachmentId())) {
+                result.add(new AttachmentStep().setAttachmentId(step.getAttachmentId()));
+            }
+            if (Objects.nonNull(step.getBody()) || Objects.nonNull(step.getBodyJson())) {
+                result.add(new ExpectedBodyStep().setBody(step.getBody()).setBodyJson(step.getBodyJson()));
+            }
+            addExpectedSteps(steps, step.getChildren(), result);
+        }
+    }
+
+}
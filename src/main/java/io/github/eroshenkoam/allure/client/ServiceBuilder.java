@@ -1,11 +1,17 @@
 package io.github.eroshenkoam.allure.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.eroshenkoam.allure.client.retrofit.BaseAuthenticator;
+import io.github.eroshenkoam.allure.client.retrofit.CompletableFutureCallAdapterFactory;
+import io.github.eroshenkoam.allure.client.retrofit.ConcurrencyLimitInterceptor;
 import io.github.eroshenkoam.allure.client.retrofit.LoginPasswordAuthenticator;
 import io.github.eroshenkoam.allure.client.retrofit.NonValidatingTrustManager;
 import io.github.eroshenkoam.allure.client.retrofit.ResponseCallAdapterFactory;
+import io.github.eroshenkoam.allure.client.retrofit.RetryBudget;
 import io.github.eroshenkoam.allure.client.retrofit.RetryInterceptor;
+import io.github.eroshenkoam.allure.client.retrofit.RetryPolicy;
 import io.github.eroshenkoam.allure.client.retrofit.TokenAuthenticator;
+import io.github.eroshenkoam.allure.client.retrofit.TokenCache;
 import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
@@ -17,13 +23,18 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.nio.file.Path;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 
 /**
+ * Services created by one builder share a single client runtime (connection pool,
+ * dispatcher, object mapper and authenticator), built on the first {@link #create(Class)} call.
+ *
  * @author eroshenkoam (Artem Eroshenko).
  */
 @SuppressWarnings({
@@ -32,9 +43,16 @@ import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKN
 })
 public class ServiceBuilder {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
+
     private final OkHttpClient.Builder clientBuilder;
     private final Retrofit.Builder retrofitBuilder;
 
+    private BaseAuthenticator authenticator;
+    private TokenCache tokenCache;
+
+    private Retrofit retrofit;
+
     public ServiceBuilder(final String baseUrl) {
         this.clientBuilder = new OkHttpClient.Builder()
                 .connectTimeout(1, TimeUnit.MINUTES)
@@ -45,12 +63,24 @@ public class ServiceBuilder {
     }
 
     public ServiceBuilder authToken(final String token) {
-        this.clientBuilder.addInterceptor(new TokenAuthenticator(token));
-        return this;
+        return withAuthenticator(new TokenAuthenticator(token));
     }
 
     public ServiceBuilder authBasic(final String username, final String password) {
-        this.clientBuilder.addInterceptor(new LoginPasswordAuthenticator(username, password));
+        return withAuthenticator(new LoginPasswordAuthenticator(username, password));
+    }
+
+    public ServiceBuilder tokenCache(final Path file) {
+        this.tokenCache = Objects.isNull(file) ? null : new TokenCache(file);
+        if (Objects.nonNull(authenticator)) {
+            authenticator.withTokenCache(tokenCache);
+        }
+        return this;
+    }
+
+    private ServiceBuilder withAuthenticator(final BaseAuthenticator authenticator) {
+        this.authenticator = authenticator.withTokenCache(tokenCache);
+        clientBuilder().addInterceptor(authenticator);
         return this;
     }
 
@@ -60,13 +90,25 @@ public class ServiceBuilder {
 
     public ServiceBuilder retryCount(final int count, final long delayInMillis) {
         if (count > 0) {
-            this.clientBuilder.addInterceptor(new RetryInterceptor(count, delayInMillis));
+            clientBuilder().addInterceptor(new RetryInterceptor(count, delayInMillis));
         }
         return this;
     }
 
+    public ServiceBuilder retryPolicy(final RetryPolicy policy, final RetryBudget budget) {
+        if (policy.getMaxAttempts() > 1) {
+            clientBuilder().addInterceptor(new RetryInterceptor(policy, budget));
+        }
+        return this;
+    }
+
+    public ServiceBuilder concurrencyLimit(final ConcurrencyLimitInterceptor limiter) {
+        clientBuilder().addInterceptor(limiter);
+        return this;
+    }
+
     public ServiceBuilder withInterceptor(final Interceptor interceptor) {
-        this.clientBuilder.addInterceptor(interceptor);
+        clientBuilder().addInterceptor(interceptor);
         return this;
     }
 
@@ -76,52 +118,65 @@ public class ServiceBuilder {
         }
         final HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
         logging.setLevel(HttpLoggingInterceptor.Level.BASIC);
-        this.clientBuilder.addInterceptor(logging);
+        clientBuilder().addInterceptor(logging);
         return this;
     }
 
     public ServiceBuilder withDispatcher(final Dispatcher dispatcher) {
-        this.clientBuilder.dispatcher(dispatcher);
+        clientBuilder().dispatcher(dispatcher);
         return this;
     }
 
     public ServiceBuilder insecure(final boolean insecure) {
         if (insecure) {
-            turnOffSslValidation(clientBuilder);
+            turnOffSslValidation(clientBuilder());
         }
         return this;
     }
 
     public ServiceBuilder writeTimeout(final long timeunit, final TimeUnit unit) {
-        this.clientBuilder.writeTimeout(timeunit, unit);
+        clientBuilder().writeTimeout(timeunit, unit);
         return this;
     }
 
     public ServiceBuilder readTimeout(final long timeunit, final TimeUnit unit) {
-        this.clientBuilder.readTimeout(timeunit, unit);
+        clientBuilder().readTimeout(timeunit, unit);
         return this;
     }
 
     public ServiceBuilder connectTimeout(final long timeunit, final TimeUnit unit) {
-        this.clientBuilder.connectTimeout(timeunit, unit);
+        clientBuilder().connectTimeout(timeunit, unit);
         return this;
     }
 
     public ServiceBuilder withRetryOnConnectionFailure() {
-        this.clientBuilder.retryOnConnectionFailure(true);
+        clientBuilder().retryOnConnectionFailure(true);
         return this;
     }
 
     public <T> T create(final Class<T> clazz) {
-        final OkHttpClient client = clientBuilder
-                .build();
-        final ObjectMapper mapper = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
-        final Retrofit retrofit = retrofitBuilder
-                .addConverterFactory(JacksonConverterFactory.create(mapper))
-                .addCallAdapterFactory(new ResponseCallAdapterFactory<>())
-                .client(client)
-                .build();
-        return retrofit.create(clazz);
+        return getRetrofit().create(clazz);
+    }
+
+    private synchronized Retrofit getRetrofit() {
+        if (Objects.isNull(retrofit)) {
+            final OkHttpClient client = clientBuilder
+                    .build();
+            retrofit = retrofitBuilder
+                    .addConverterFactory(JacksonConverterFactory.create(MAPPER))
+                    .addCallAdapterFactory(new ResponseCallAdapterFactory<>())
+                    .addCallAdapterFactory(new CompletableFutureCallAdapterFactory())
+                    .client(client)
+                    .build();
+        }
+        return retrofit;
+    }
+
+    private synchronized OkHttpClient.Builder clientBuilder() {
+        if (Objects.nonNull(retrofit)) {
+            throw new IllegalStateException("Could not configure client: services have already been created");
+        }
+        return clientBuilder;
     }
 
     @SuppressWarnings("PMD.EmptyCatchBlock")
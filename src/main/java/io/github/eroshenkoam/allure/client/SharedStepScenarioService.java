@@ -1,5 +1,6 @@
 package io.github.eroshenkoam.allure.client;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import io.github.eroshenkoam.allure.client.dto.Page;
 import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
 import io.github.eroshenkoam.allure.client.dto.ScenarioStepCreate;
@@ -7,6 +8,7 @@ import io.github.eroshenkoam.allure.client.dto.ScenarioStepResponse;
 import io.github.eroshenkoam.allure.client.dto.ScenarioStepUpdate;
 import io.github.eroshenkoam.allure.client.dto.SharedStepAttachment;
 import io.github.eroshenkoam.allure.client.dto.scenario.SharedStepScenario;
+import io.github.eroshenkoam.allure.client.retrofit.Idempotent;
 import okhttp3.MultipartBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -19,8 +21,10 @@ import retrofit2.http.POST;
 import retrofit2.http.Part;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface SharedStepScenarioService {
 
@@ -30,6 +34,12 @@ public interface SharedStepScenarioService {
     @GET("api/rs/sharedstep/{id}/step")
     Call<ScenarioNormalized> getScenario(@Path("id") Long id);
 
+    /**
+     * Get scenario as received, without mapping it to {@link ScenarioNormalized}.
+     */
+    @GET("api/rs/sharedstep/{id}/step")
+    Call<TokenBuffer> getRawScenario(@Path("id") Long id);
+
     /**
      * Delete test case scenario.
      */
@@ -39,6 +49,7 @@ public interface SharedStepScenarioService {
     /**
      * Set test cases scenario.
      */
+    @Idempotent
     @POST("api/rs/sharedstep/{id}/scenario")
     Call<Void> setScenario(@Path("id") Long id, @Body SharedStepScenario scenario);
 
@@ -66,6 +77,7 @@ public interface SharedStepScenarioService {
     /**
      * Update scenario step.
      */
+    @Idempotent
     @PATCH("api/rs/sharedstep/step/{id}")
     Call<ScenarioNormalized> updateStep(
             @Path("id") Long id,
@@ -75,6 +87,7 @@ public interface SharedStepScenarioService {
     /**
      * Update scenario step.
      */
+    @Idempotent
     @PATCH("api/rs/sharedstep/step/{id}")
     Call<ScenarioNormalized> updateStep(
             @Path("id") Long id,
@@ -101,6 +114,7 @@ public interface SharedStepScenarioService {
     );
 
     @GET("/api/rs/sharedstep/attachment/{id}/content")
+    @Streaming
     Call<ResponseBody> getAttachmentContent(
             @Path("id") Long id
     );
@@ -116,6 +130,6 @@ public interface SharedStepScenarioService {
     );
 
     @DELETE("api/rs/sharedstep/attachment/{id}")
-    Call<Void> deleteAttachment(@Path("id") Long id);
+    CompletableFuture<Void> deleteAttachment(@Path("id") Long id);
 
 }
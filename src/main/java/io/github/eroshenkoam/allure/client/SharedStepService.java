@@ -5,6 +5,7 @@ import io.github.eroshenkoam.allure.client.dto.SharedStep;
 import io.github.eroshenkoam.allure.client.dto.SharedStepCreate;
 import io.github.eroshenkoam.allure.client.dto.SharedStepUpdate;
 import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import io.github.eroshenkoam.allure.client.retrofit.Idempotent;
 import okhttp3.MultipartBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
@@ -40,6 +41,7 @@ public interface SharedStepService {
             @Body SharedStepCreate request
     );
 
+    @Idempotent
     @PATCH("api/rs/sharedstep/{id}")
     Call<SharedStep> updateStep(
             @Path("id") Long id,
@@ -0,0 +1,51 @@
+package io.github.eroshenkoam.allure.client;
+
+import io.github.eroshenkoam.allure.client.dto.CustomFieldValue;
+import io.github.eroshenkoam.allure.client.dto.Issue;
+import io.github.eroshenkoam.allure.client.dto.Member;
+import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
+import io.github.eroshenkoam.allure.client.dto.TestCase;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAuditEntry;
+import io.github.eroshenkoam.allure.client.dto.TestCaseScenario;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * Test case together with its sub-resources, loaded by {@link TestCaseAggregateLoader}.
+ * Parts that were not requested are {@code null}.
+ */
+@Data
+@Accessors(chain = true)
+public class TestCaseAggregate {
+
+    private Long id;
+
+    private TestCase testCase;
+    private ScenarioNormalized scenario;
+    private TestCaseScenario steps;
+    private TestCaseScenario stepsFromRun;
+
+    private List<Issue> issues;
+    private List<Member> members;
+    private List<CustomFieldValue> customFields;
+    private List<TestCaseAttachment> attachments;
+    private List<TestCaseAuditEntry> audit;
+
+    public enum Part {
+
+        TEST_CASE,
+        SCENARIO,
+        STEPS,
+        STEPS_FROM_RUN,
+        ISSUES,
+        MEMBERS,
+        CUSTOM_FIELDS,
+        ATTACHMENTS,
+        AUDIT
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.eroshenkoam.allure.client;
+
+import io.github.eroshenkoam.allure.client.TestCaseAggregate.Part;
+import io.github.eroshenkoam.allure.client.dto.Page;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAuditEntry;
+import io.github.eroshenkoam.allure.client.paging.PageSizeController;
+import io.github.eroshenkoam.allure.client.paging.Paginator;
+import io.github.eroshenkoam.allure.client.retrofit.CompletableFutureCallAdapterFactory;
+import retrofit2.Call;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Loads test case sub-resources concurrently.
+ * <p>
+ * All requested parts are requested at once, so loading takes as long as the slowest request.
+ * Steps are optional: scenario from run is absent for test cases that were never run and export
+ * falls back to empty steps, so errors of both steps parts are ignored and the part is left {@code null}.
+ * Attachments are paged with the given page size controller, audit contains the latest {@value #AUDIT_SIZE} entries.
+ * When any part fails, pending requests of other parts are cancelled.
+ */
+public class TestCaseAggregateLoader {
+
+    private static final int AUDIT_SIZE = 50;
+
+    private final TestCaseService testCaseService;
+    private final TestCaseScenarioService scenarioService;
+    private final TestCaseAuditService auditService;
+    private final PageSizeController pageSize;
+
+    public TestCaseAggregateLoader(final ServiceBuilder builder, final PageSizeController pageSize) {
+        this.testCaseService = builder.create(TestCaseService.class);
+        this.scenarioService = builder.create(TestCaseScenarioService.class);
+        this.auditService = builder.create(TestCaseAuditService.class);
+        this.pageSize = pageSize;
+    }
+
+    public TestCaseAggregate load(final Long id, final Set<Part> parts) throws IOException {
+        return CompletableFutureCallAdapterFactory.await(loadAsync(id, parts));
+    }
+
+    public CompletableFuture<TestCaseAggregate> loadAsync(final Long id, final Set<Part> parts) {
+        final TestCaseAggregate aggregate = new TestCaseAggregate().setId(id);
+        final List<CompletableFuture<?>> calls = new ArrayList<>();
+        final List<CompletableFuture<?>> requests = new ArrayList<>();
+        if (parts.contains(Part.TEST_CASE)) {
+            requests.add(fetch(testCaseService.findById(id), calls, aggregate::setTestCase));
+        }
+        if (parts.contains(Part.SCENARIO)) {
+            requests.add(fetch(scenarioService.getScenario(id), calls, aggregate::setScenario));
+        }
+        if (parts.contains(Part.STEPS)) {
+            requests.add(fetch(testCaseService.getScenario(id), calls, aggregate::setSteps)
+                    .exceptionally(e -> null));
+        }
+        if (parts.contains(Part.STEPS_FROM_RUN)) {
+            requests.add(fetch(testCaseService.getScenarioFromRun(id), calls, aggregate::setStepsFromRun)
+                    .exceptionally(e -> null));
+        }
+        if (parts.contains(Part.ISSUES)) {
+            requests.add(fetch(testCaseService.getIssues(id), calls, aggregate::setIssues));
+        }
+        if (parts.contains(Part.MEMBERS)) {
+            requests.add(fetch(testCaseService.getMembers(id), calls, aggregate::setMembers));
+        }
+        if (parts.contains(Part.CUSTOM_FIELDS)) {
+            requests.add(fetch(testCaseService.getCustomFields(id), calls, aggregate::setCustomFields));
+        }
+        if (parts.contains(Part.ATTACHMENTS)) {
+            final CompletableFuture<List<TestCaseAttachment>> attachments = Paginator.fetchAllAsync(
+                    (page, size) -> testCaseService.getAttachments(id, page, size), pageSize
+            );
+            calls.add(attachments);
+            requests.add(attachments.thenAccept(aggregate::setAttachments));
+        }
+        if (parts.contains(Part.AUDIT)) {
+            final Call<Page<TestCaseAuditEntry>> audit = auditService.getTestCaseAudit(id, 0, AUDIT_SIZE);
+            requests.add(fetch(audit, calls, page -> aggregate.setAudit(page.getContent())));
+        }
+        final CompletableFuture<TestCaseAggregate> result = CompletableFuture
+                .allOf(requests.toArray(new CompletableFuture[0]))
+                .thenApply(done -> aggregate);
+        result.whenComplete((value, error) -> {
+            if (Objects.nonNull(error)) {
+                calls.forEach(call -> call.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    private static <T> CompletableFuture<Void> fetch(final Call<T> call,
+                                                     final List<CompletableFuture<?>> calls,
+                                                     final Consumer<T> setter) {
+        final CompletableFuture<T> future = CompletableFutureCallAdapterFactory.toFuture(call);
+        calls.add(future);
+        return future.thenAccept(setter);
+    }
+
+}
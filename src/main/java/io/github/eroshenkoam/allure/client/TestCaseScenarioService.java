@@ -1,5 +1,6 @@
 package io.github.eroshenkoam.allure.client;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import io.github.eroshenkoam.allure.client.dto.Page;
 import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
 import io.github.eroshenkoam.allure.client.dto.ScenarioStepCreate;
@@ -7,6 +8,7 @@ import io.github.eroshenkoam.allure.client.dto.ScenarioStepUpdate;
 import io.github.eroshenkoam.allure.client.dto.ScenarioStepResponse;
 import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
 import io.github.eroshenkoam.allure.client.dto.scenario.TestCaseScenarioV2;
+import io.github.eroshenkoam.allure.client.retrofit.Idempotent;
 import okhttp3.MultipartBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -19,8 +21,10 @@ import retrofit2.http.POST;
 import retrofit2.http.Part;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface TestCaseScenarioService {
 
@@ -30,6 +34,12 @@ public interface TestCaseScenarioService {
     @GET("api/rs/testcase/{id}/step")
     Call<ScenarioNormalized> getScenario(@Path("id") Long id);
 
+    /**
+     * Get scenario as received, without mapping it to {@link ScenarioNormalized}.
+     */
+    @GET("api/rs/testcase/{id}/step")
+    Call<TokenBuffer> getRawScenario(@Path("id") Long id);
+
     /**
      * Migrate test case scenario.
      */
@@ -47,6 +57,7 @@ public interface TestCaseScenarioService {
     /**
      * Set test cases scenario.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/scenario?v2=true")
     Call<Void> setScenario(@Path("id") Long id, @Body TestCaseScenarioV2 scenario);
 
@@ -74,6 +85,7 @@ public interface TestCaseScenarioService {
     /**
      * Update scenario step.
      */
+    @Idempotent
     @PATCH("api/rs/testcase/step/{id}")
     Call<ScenarioNormalized> updateStep(
             @Path("id") Long id,
@@ -83,6 +95,7 @@ public interface TestCaseScenarioService {
     /**
      * Update scenario step.
      */
+    @Idempotent
     @PATCH("api/rs/testcase/step/{id}")
     Call<ScenarioNormalized> updateStep(
             @Path("id") Long id,
@@ -109,6 +122,7 @@ public interface TestCaseScenarioService {
     );
 
     @GET("/api/rs/testcase/attachment/{id}/content")
+    @Streaming
     Call<ResponseBody> getAttachmentContent(
             @Path("id") Long id
     );
@@ -124,6 +138,6 @@ public interface TestCaseScenarioService {
     );
 
     @DELETE("api/rs/testcase/attachment/{id}")
-    Call<Void> deleteAttachment(@Path("id") Long id);
+    CompletableFuture<Void> deleteAttachment(@Path("id") Long id);
 
 }
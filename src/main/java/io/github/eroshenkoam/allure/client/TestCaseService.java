@@ -10,6 +10,7 @@ import io.github.eroshenkoam.allure.client.dto.TestCaseScenario;
 import io.github.eroshenkoam.allure.client.dto.TestCase;
 import io.github.eroshenkoam.allure.client.dto.TestCaseRelation;
 import io.github.eroshenkoam.allure.client.dto.TestTag;
+import io.github.eroshenkoam.allure.client.retrofit.Idempotent;
 import okhttp3.MultipartBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -23,6 +24,7 @@ import retrofit2.http.POST;
 import retrofit2.http.Part;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 import java.util.List;
 
@@ -58,6 +60,19 @@ public interface TestCaseService {
             @Query("size") int size
     );
 
+    /**
+     * Find test cases in project by rql in given order.
+     */
+    @GET("api/rs/testcase/__search")
+    Call<Page<TestCase>> findByRql(
+            @Query("projectId") Long projectId,
+            @Query("rql") String rql,
+            @Query("deleted") boolean deleted,
+            @Query("page") int page,
+            @Query("size") int size,
+            @Query("sort") List<String> sort
+    );
+
     /**
      * Create test case in project.
      */
@@ -70,6 +85,7 @@ public interface TestCaseService {
     @Headers(
             "Content-Type: application/json"
     )
+    @Idempotent
     @PATCH("api/rs/testcase/{id}")
     Call<TestCase> update(@Path("id") Long testCaseId, @Body TestCasePatch patch);
 
@@ -88,6 +104,7 @@ public interface TestCaseService {
     /**
      * Update test case tags.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/link")
     Call<List<TestTag>> setLinks(@Path("id") Long id, @Body List<TestTag> values);
 
@@ -100,6 +117,7 @@ public interface TestCaseService {
     /**
      * Update test case tags.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/tag")
     Call<List<TestTag>> setTags(@Path("id") Long id, @Body List<TestTag> values);
 
@@ -112,6 +130,7 @@ public interface TestCaseService {
     /**
      * Update test case issues.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/issue")
     Call<List<Issue>> setIssues(@Path("id") Long id, @Body List<Issue> values);
 
@@ -124,6 +143,7 @@ public interface TestCaseService {
     /**
      * Update test case issues.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/members")
     Call<List<Member>> setMembers(@Path("id") Long id, @Body List<Member> values);
 
@@ -136,6 +156,7 @@ public interface TestCaseService {
     /**
      * Update test case custom fields.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/cfv")
     Call<List<CustomFieldValue>> setCustomFields(@Path("id") Long id, @Body List<CustomFieldValue> values);
 
@@ -148,6 +169,7 @@ public interface TestCaseService {
     /**
      * Set test case relations.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/relation")
     Call<List<TestCaseRelation>> setRelations(@Path("id") Long testCaseId, @Body List<TestCaseRelation> relations);
 
@@ -166,6 +188,7 @@ public interface TestCaseService {
     /**
      * Set test cases scenario.
      */
+    @Idempotent
     @POST("api/rs/testcase/{id}/scenario")
     Call<Void> setScenario(@Path("id") Long id, @Body TestCaseScenario scenario);
 
@@ -184,6 +207,7 @@ public interface TestCaseService {
                                                   @Query("size") int size);
 
     @GET("/api/rs/testcase/attachment/{id}/content")
+    @Streaming
     Call<ResponseBody> getAttachmentContent(@Path("id") Long id);
 
     /**
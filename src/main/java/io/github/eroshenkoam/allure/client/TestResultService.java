@@ -5,6 +5,8 @@ import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
+import java.util.List;
+
 /**
  * @author eroshenkoam (Artem Eroshenko).
  */
@@ -28,6 +30,18 @@ public interface TestResultService {
             @Query("size") int size
     );
 
+    /**
+     * Find test results in project by rql in given order.
+     */
+    @GET("api/rs/testresult/__search")
+    Call<Page<TestResult>> findByRql(
+            @Query("projectId") Long projectId,
+            @Query("rql") String rql,
+            @Query("page") int page,
+            @Query("size") int size,
+            @Query("sort") List<String> sort
+    );
+
     /**
      * Get test cases scenario.
      */
@@ -35,6 +49,7 @@ public interface TestResultService {
     Call<TestResultScenario> getScenario(@Path("id") Long id);
 
     @GET("/api/rs/testresult/attachment/{id}/content")
+    @Streaming
     Call<ResponseBody> getAttachmentContent(@Path("id") Long id);
 
 
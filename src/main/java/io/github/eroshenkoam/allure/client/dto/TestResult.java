@@ -40,5 +40,7 @@ public class TestResult {
     private Long stop;
     private Long duration;
 
+    private Long createdDate;
+
 
 }
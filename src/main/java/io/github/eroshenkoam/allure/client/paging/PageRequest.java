@@ -0,0 +1,16 @@
+package io.github.eroshenkoam.allure.client.paging;
+
+import io.github.eroshenkoam.allure.client.dto.Page;
+import retrofit2.Call;
+
+/**
+ * Creates call for single page of paged endpoint.
+ *
+ * @param <T> page item type
+ */
+@FunctionalInterface
+public interface PageRequest<T> {
+
+    Call<Page<T>> call(int page, int size);
+
+}
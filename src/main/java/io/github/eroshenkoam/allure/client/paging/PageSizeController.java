@@ -0,0 +1,115 @@
+package io.github.eroshenkoam.allure.client.paging;
+
+import io.github.eroshenkoam.allure.client.dto.Page;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import java.util.Objects;
+
+/**
+ * Tunes page size of paged listing toward target latency and payload size.
+ * <p>
+ * Sizes are powers of two, so a page of any size on the ladder starts at an offset that is
+ * a multiple of its size and can be addressed by page number. Size is doubled after a full page
+ * that took less than half of the target latency and halved after a page that was too slow or
+ * too large. When server returns smaller pages than requested, its limit becomes the maximum size.
+ */
+public class PageSizeController {
+
+    public static final int DEFAULT_INITIAL_SIZE = 64;
+    public static final int DEFAULT_MAX_SIZE = 512;
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 1000;
+    public static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+
+    private static final int MIN_SIZE = 8;
+
+    private final long targetLatencyMillis;
+    private final long maxBytes;
+
+    private int maxSize;
+    private int size;
+
+    public PageSizeController() {
+        this(DEFAULT_INITIAL_SIZE, DEFAULT_MAX_SIZE, DEFAULT_TARGET_LATENCY_MILLIS, DEFAULT_MAX_BYTES);
+    }
+
+    public PageSizeController(final int initialSize,
+                              final int maxSize,
+                              final long targetLatencyMillis,
+                              final long maxBytes) {
+        this.maxSize = floorPowerOfTwo(Math.max(MIN_SIZE, maxSize));
+        this.size = floorPowerOfTwo(Math.max(MIN_SIZE, Math.min(this.maxSize, initialSize)));
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the largest size not above current one that can address given offset.
+     */
+    public synchronized int getSize(final long offset) {
+        int aligned = size;
+        while (aligned > 1 && offset % aligned != 0) {
+            aligned >>= 1;
+        }
+        return aligned;
+    }
+
+    /**
+     * Records page fetched with given requested size.
+     *
+     * @return {@code false} when server ignored requested size and page content must be fetched again
+     */
+    public synchronized boolean observe(final int requestedSize, final Response<? extends Page<?>> response) {
+        final Page<?> page = response.body();
+        if (Objects.isNull(page)) {
+            return true;
+        }
+        if (page.getSize() > 0 && page.getSize() < requestedSize) {
+            maxSize = Math.max(1, floorPowerOfTwo(page.getSize()));
+            size = Math.min(size, maxSize);
+            return false;
+        }
+        final long latency = response.raw().receivedResponseAtMillis() - response.raw().sentRequestAtMillis();
+        final long bytes = getContentLength(response);
+        final int items = Objects.isNull(page.getContent()) ? 0 : page.getContent().size();
+
+        final boolean tooSlow = latency > targetLatencyMillis;
+        final boolean tooLarge = bytes > maxBytes;
+        if (tooSlow || tooLarge) {
+            if (requestedSize <= size) {
+                size = Math.max(MIN_SIZE, floorPowerOfTwo(requestedSize) / 2);
+            }
+        } else if (requestedSize == size && items >= requestedSize
+                && latency * 2 <= targetLatencyMillis && bytes * 2 <= maxBytes) {
+            size = Math.min(maxSize, size * 2);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("page size %s (max %s)", size, maxSize);
+    }
+
+    private static long getContentLength(final Response<?> response) {
+        final ResponseBody body = response.raw().body();
+        if (Objects.nonNull(body) && body.contentLength() >= 0) {
+            return body.contentLength();
+        }
+        final String header = response.headers().get("Content-Length");
+        try {
+            return Objects.isNull(header) ? 0 : Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int floorPowerOfTwo(final int value) {
+        return Integer.highestOneBit(Math.max(1, value));
+    }
+
+}
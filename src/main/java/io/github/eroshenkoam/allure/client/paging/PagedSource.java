@@ -0,0 +1,101 @@
+package io.github.eroshenkoam.allure.client.paging;
+
+import io.github.eroshenkoam.allure.client.dto.Page;
+import io.github.eroshenkoam.allure.client.retrofit.CompletableFutureCallAdapterFactory;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy view over paged endpoint.
+ * <p>
+ * Pages are fetched on demand while items are consumed, and the next page is requested
+ * as soon as the current one arrives, so listing overlaps processing. At most one page
+ * is buffered ahead of the consumer. Page sizes are taken from {@link PageSizeController}.
+ * Fetch errors are thrown as {@link UncheckedIOException}.
+ *
+ * @param <T> page item type
+ */
+public class PagedSource<T> implements Iterable<T> {
+
+    private final PageRequest<T> request;
+    private final PageSizeController pageSize;
+
+    public PagedSource(final PageRequest<T> request, final PageSizeController pageSize) {
+        this.request = request;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    private class PageIterator implements Iterator<T> {
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private long nextOffset;
+        private int nextSize;
+        private CompletableFuture<Response<Page<T>>> next = fetch(0);
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (Objects.isNull(next)) {
+                    return false;
+                }
+                final Response<Page<T>> response = await(next);
+                if (!pageSize.observe(nextSize, response)) {
+                    next = fetch(nextOffset);
+                    continue;
+                }
+                final Page<T> page = response.body();
+                final List<T> content = Objects.isNull(page.getContent())
+                        ? Collections.emptyList()
+                        : page.getContent();
+                final long offset = nextOffset + content.size();
+                next = content.isEmpty() || offset >= page.getTotalElements() ? null : fetch(offset);
+                current = content.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private CompletableFuture<Response<Page<T>>> fetch(final long offset) {
+            nextOffset = offset;
+            nextSize = pageSize.getSize(offset);
+            final int page = Math.toIntExact(offset / nextSize);
+            return CompletableFutureCallAdapterFactory.toResponseFuture(request.call(page, nextSize));
+        }
+
+        private Response<Page<T>> await(final CompletableFuture<Response<Page<T>>> future) {
+            try {
+                return CompletableFutureCallAdapterFactory.await(future);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+}
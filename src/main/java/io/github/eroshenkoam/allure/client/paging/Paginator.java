@@ -0,0 +1,143 @@
+package io.github.eroshenkoam.allure.client.paging;
+
+import io.github.eroshenkoam.allure.client.dto.Page;
+import io.github.eroshenkoam.allure.client.retrofit.CompletableFutureCallAdapterFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fetches all pages of paged endpoint.
+ * <p>
+ * The first page is fetched to learn total number of items, the remaining pages
+ * are fetched concurrently, keeping at most {@code window} requests in flight.
+ * Page size of every request is taken from {@link PageSizeController}, so it adapts
+ * while listing goes on. Items are returned in offset order.
+ *
+ * @param <T> page item type
+ */
+public class Paginator<T> {
+
+    private final PageRequest<T> request;
+    private final PageSizeController pageSize;
+    private final int window;
+
+    public Paginator(final PageRequest<T> request, final PageSizeController pageSize, final int window) {
+        this.request = request;
+        this.pageSize = pageSize;
+        this.window = Math.max(1, window);
+    }
+
+    public List<T> fetchAll() throws IOException {
+        try {
+            return fetchSlices();
+        } catch (PageSizeLimitedException e) {
+            return fetchSlices();
+        }
+    }
+
+    private List<T> fetchSlices() throws IOException {
+        final Page<T> first = fetch(0);
+        final List<T> result = new ArrayList<>(Math.max(first.getTotalElements(), 0));
+        addContent(result, first);
+        long offset = result.size();
+        if (offset == 0 || offset >= first.getTotalElements()) {
+            return result;
+        }
+
+        final List<CompletableFuture<Page<T>>> pages = new ArrayList<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Semaphore permits = new Semaphore(window);
+        try {
+            while (offset < first.getTotalElements() && Objects.isNull(failure.get())) {
+                permits.acquire();
+                final int size = pageSize.getSize(offset);
+                final CompletableFuture<Page<T>> future = fetchAsync(offset, size);
+                future.whenComplete((value, error) -> {
+                    if (Objects.nonNull(error)) {
+                        failure.compareAndSet(null, error);
+                    }
+                    permits.release();
+                });
+                pages.add(future);
+                offset += size;
+            }
+        } catch (InterruptedException e) {
+            pages.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching pages");
+        }
+        for (CompletableFuture<Page<T>> future : pages) {
+            addContent(result, CompletableFutureCallAdapterFactory.await(future));
+        }
+        return result;
+    }
+
+    /**
+     * Fetches pages one after another without blocking calling thread.
+     */
+    public static <T> CompletableFuture<List<T>> fetchAllAsync(final PageRequest<T> request,
+                                                               final PageSizeController pageSize) {
+        return collectAsync(request, pageSize, 0, new ArrayList<>());
+    }
+
+    private static <T> CompletableFuture<List<T>> collectAsync(final PageRequest<T> request,
+                                                               final PageSizeController pageSize,
+                                                               final long offset,
+                                                               final List<T> result) {
+        final int size = pageSize.getSize(offset);
+        final int page = Math.toIntExact(offset / size);
+        return CompletableFutureCallAdapterFactory.toResponseFuture(request.call(page, size)).thenCompose(response -> {
+            if (!pageSize.observe(size, response)) {
+                return collectAsync(request, pageSize, offset, result);
+            }
+            final Page<T> current = response.body();
+            final List<T> content = Objects.isNull(current.getContent()) ? List.of() : current.getContent();
+            result.addAll(content);
+            final long next = offset + content.size();
+            if (!content.isEmpty() && next < current.getTotalElements()) {
+                return collectAsync(request, pageSize, next, result);
+            }
+            return CompletableFuture.completedFuture(result);
+        });
+    }
+
+    private Page<T> fetch(final long offset) throws IOException {
+        return CompletableFutureCallAdapterFactory.await(fetchAsync(offset, pageSize.getSize(offset)));
+    }
+
+    private CompletableFuture<Page<T>> fetchAsync(final long offset, final int size) {
+        final int page = Math.toIntExact(offset / size);
+        return CompletableFutureCallAdapterFactory.toResponseFuture(request.call(page, size))
+                .thenApply(response -> {
+                    if (!pageSize.observe(size, response)) {
+                        throw new PageSizeLimitedException(size, response.body().getSize());
+                    }
+                    return response.body();
+                });
+    }
+
+    private static <T> void addContent(final List<T> result, final Page<T> page) {
+        if (Objects.nonNull(page.getContent())) {
+            result.addAll(page.getContent());
+        }
+    }
+
+    /**
+     * Server returned smaller page than requested, so page numbers of planned requests are wrong.
+     */
+    private static class PageSizeLimitedException extends RuntimeException {
+
+        PageSizeLimitedException(final int requested, final int actual) {
+            super(String.format("Server limited page size %s to %s", requested, actual));
+        }
+
+    }
+
+}
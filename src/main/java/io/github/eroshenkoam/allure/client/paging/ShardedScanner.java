@@ -0,0 +1,137 @@
+package io.github.eroshenkoam.allure.client.paging;
+
+import io.github.eroshenkoam.allure.client.dto.Page;
+import io.github.eroshenkoam.allure.client.retrofit.CompletableFutureCallAdapterFactory;
+import retrofit2.Call;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Scans large RQL result set as disjoint ranges of numeric field.
+ * <p>
+ * Bounds of the field are found with two sorted single-item requests, then the filter is split into
+ * {@code field >= a and field < b} shards that are paged independently and concurrently.
+ * Offsets stay shallow within each shard, and items created after the scan started are not picked up.
+ * Shards are sorted by the field and merged in shard order, so the result is ordered by the field.
+ * Items without the field can not be matched by any range, so when a bound has no value
+ * the filter is scanned in a single unsharded pass instead.
+ *
+ * @param <T> page item type
+ */
+public class ShardedScanner<T> {
+
+    private static final int SHARDS_PER_WORKER = 4;
+
+    private final ShardRequest<T> request;
+    private final String filter;
+    private final String field;
+    private final Function<T, Long> key;
+    private final PageSizeController pageSize;
+    private final int parallelism;
+
+    public ShardedScanner(final ShardRequest<T> request,
+                          final String filter,
+                          final String field,
+                          final Function<T, Long> key,
+                          final PageSizeController pageSize,
+                          final int parallelism) {
+        this.request = request;
+        this.filter = filter;
+        this.field = field;
+        this.key = key;
+        this.pageSize = pageSize;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public List<T> fetchAll() throws IOException {
+        final List<T> first = getBound("asc");
+        final List<T> last = getBound("desc");
+        if (first.isEmpty() || last.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Long min = key.apply(first.get(0));
+        final Long max = key.apply(last.get(0));
+        if (Objects.isNull(min) || Objects.isNull(max)) {
+            System.out.printf("Field [%s] is missing for some items, scanning without shards\n", field);
+            return CompletableFutureCallAdapterFactory.await(Paginator.fetchAllAsync(
+                    (page, size) -> request.call(filter, page, size, getSort("asc")), pageSize
+            ));
+        }
+
+        final List<long[]> shards = split(min, max);
+        final List<List<T>> results = new ArrayList<>(shards.size());
+        shards.forEach(shard -> results.add(null));
+
+        final AtomicInteger cursor = new AtomicInteger();
+        final List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, shards.size()); i++) {
+            workers.add(scanNext(shards, results, cursor));
+        }
+        CompletableFutureCallAdapterFactory.await(CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])));
+
+        final List<T> result = new ArrayList<>();
+        results.forEach(result::addAll);
+        return result;
+    }
+
+    private CompletableFuture<Void> scanNext(final List<long[]> shards,
+                                             final List<List<T>> results,
+                                             final AtomicInteger cursor) {
+        final int index = cursor.getAndIncrement();
+        if (index >= shards.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final long[] shard = shards.get(index);
+        final String rql = String.format("(%s) and %s >= %s and %s < %s", filter, field, shard[0], field, shard[1]);
+        final List<String> sort = getSort("asc");
+        return Paginator.fetchAllAsync((page, size) -> request.call(rql, page, size, sort), pageSize)
+                .thenCompose(items -> {
+                    results.set(index, items);
+                    return scanNext(shards, results, cursor);
+                });
+    }
+
+    private List<long[]> split(final long min, final long max) {
+        final long span = max - min + 1;
+        final long count = Math.max(1, Math.min(span, (long) parallelism * SHARDS_PER_WORKER));
+        final long width = (span + count - 1) / count;
+        final List<long[]> shards = new ArrayList<>();
+        for (long from = min; from <= max; from += width) {
+            shards.add(new long[]{from, Math.min(from + width, max + 1)});
+        }
+        return shards;
+    }
+
+    private List<T> getBound(final String direction) throws IOException {
+        final Page<T> page = CompletableFutureCallAdapterFactory.await(
+                CompletableFutureCallAdapterFactory.toFuture(request.call(filter, 0, 1, getSort(direction)))
+        );
+        return Objects.isNull(page.getContent()) ? new ArrayList<>() : page.getContent();
+    }
+
+    private List<String> getSort(final String direction) {
+        if ("id".equals(field)) {
+            return List.of(String.format("id,%s", direction));
+        }
+        return List.of(String.format("%s,%s", field, direction), String.format("id,%s", direction));
+    }
+
+    /**
+     * Request of single page of a shard.
+     *
+     * @param <T> page item type
+     */
+    @FunctionalInterface
+    public interface ShardRequest<T> {
+
+        Call<Page<T>> call(String rql, int page, int size, List<String> sort);
+
+    }
+
+}
@@ -11,40 +11,129 @@ import okhttp3.ResponseBody;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 
 /**
+ * Shares single access token between all threads.
+ * <p>
+ * Only one thread requests a new token at a time, other threads wait for it and reuse the result.
+ * Token is renewed proactively when it is close to expiration: one thread renews it,
+ * while others keep using the current token until it actually expires.
+ *
  * @author eroshenkoam (Artem Eroshenko).
  */
 public abstract class BaseAuthenticator implements Interceptor {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
+
     private static final String AUTHORIZATION_HEADER_NAME = "Authorization";
 
     private static final int UNAUTHORIZED_CODE = 401;
 
     private static final String TOKEN_URL = "/api/uaa/oauth/token";
 
-    private Token token;
+    private static final long RENEWAL_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile IssuedToken token;
+
+    private volatile TokenCache tokenCache;
+
+    public BaseAuthenticator withTokenCache(final TokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+        return this;
+    }
 
     @Override
     public Response intercept(final Chain chain) throws IOException {
-        if (Objects.isNull(token)) {
-            token = createToken(chain, newTokenForm());
-        }
+        final IssuedToken current = getToken(chain);
 
-        final Response response = executeRequest(chain);
+        final Response response = executeRequest(chain, current);
         if (response.code() == UNAUTHORIZED_CODE) {
             response.close();
-            token = createToken(chain, newTokenForm());
-            return executeRequest(chain);
+            return executeRequest(chain, refreshToken(chain, current));
         }
 
         return response;
     }
 
-    private Response executeRequest(final Chain chain) throws IOException {
+    private IssuedToken getToken(final Chain chain) throws IOException {
+        final IssuedToken current = token;
+        final long now = System.currentTimeMillis();
+        if (Objects.isNull(current) || current.isExpired(now)) {
+            return refreshToken(chain, current);
+        }
+        if (current.isExpiring(now) && refreshLock.tryLock()) {
+            try {
+                if (current == token) {
+                    token = issueToken(chain);
+                }
+            } catch (IOException | ServerClientException e) {
+                System.out.printf("Could not renew token, using current one: %s\n", e.getMessage());
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return token;
+    }
+
+    private IssuedToken refreshToken(final Chain chain, final IssuedToken stale) throws IOException {
+        refreshLock.lock();
+        try {
+            final IssuedToken current = token;
+            if (Objects.nonNull(current) && current != stale && !current.isExpired(System.currentTimeMillis())) {
+                return current;
+            }
+            if (Objects.isNull(stale)) {
+                final Optional<IssuedToken> cached = loadCachedToken(chain);
+                if (cached.isPresent()) {
+                    token = cached.get();
+                    return token;
+                }
+            }
+            token = issueToken(chain);
+            return token;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private IssuedToken issueToken(final Chain chain) throws IOException {
+        final long issuedAt = System.currentTimeMillis();
+        final Token created = createToken(chain, newTokenForm());
+        final IssuedToken issued = new IssuedToken(created.getAccessToken(), getExpiresAt(created, issuedAt));
+        final TokenCache cache = tokenCache;
+        if (Objects.nonNull(cache)) {
+            cache.store(getCacheKey(chain, cache), new TokenCache.Entry()
+                    .setAccessToken(issued.accessToken)
+                    .setExpiresAt(issued.expiresAt));
+        }
+        return issued;
+    }
+
+    private Optional<IssuedToken> loadCachedToken(final Chain chain) {
+        final TokenCache cache = tokenCache;
+        if (Objects.isNull(cache)) {
+            return Optional.empty();
+        }
+        return cache.load(getCacheKey(chain, cache))
+                .map(entry -> new IssuedToken(entry.getAccessToken(), entry.getExpiresAt()))
+                .filter(cached -> !cached.isExpiring(System.currentTimeMillis()));
+    }
+
+    private Response executeRequest(final Chain chain, final IssuedToken current) throws IOException {
         final Request request = chain.request().newBuilder()
-                .addHeader(AUTHORIZATION_HEADER_NAME, String.format("Bearer %s", token.getAccessToken()))
+                .addHeader(AUTHORIZATION_HEADER_NAME, String.format("Bearer %s", current.accessToken))
                 .build();
         return chain.proceed(request);
     }
@@ -59,21 +148,73 @@ public abstract class BaseAuthenticator implements Interceptor {
                 if (!jwtTokenResponse.isSuccessful()) {
                     throw new ServerClientException("get token", body.string());
                 }
-                return new ObjectMapper().readValue(body.string(), Token.class);
+                return MAPPER.readValue(body.string(), Token.class);
             }
         }
     }
 
+    /**
+     * Token request is built from scratch, so tags of the triggering call, e.g. its retrofit invocation,
+     * are not copied and interceptors do not treat it as that call.
+     */
     private Request createTokenRequest(@Nonnull final Request request,
                                        @Nonnull final FormBody body) {
-        return request.newBuilder()
+        return new Request.Builder()
                 .url(Objects.requireNonNull(request.url().resolve(TOKEN_URL), "Could not resolve token url"))
                 .header(AUTHORIZATION_HEADER_NAME, "Basic YWNtZTphY21lc2VjcmV0")
                 .post(body)
                 .build();
     }
 
+    /**
+     * Key of cached token: token url and identity of the client, never the credentials themselves.
+     */
+    private String getCacheKey(final Chain chain, final TokenCache cache) {
+        final String key = String.format("%s#%s", chain.request().url().resolve(TOKEN_URL), getCacheIdentity(cache));
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long getExpiresAt(final Token token, final long issuedAt) {
+        try {
+            return Optional.ofNullable(token.getExpiresIn())
+                    .map(Long::parseLong)
+                    .map(seconds -> issuedAt + TimeUnit.SECONDS.toMillis(seconds))
+                    .orElse(Long.MAX_VALUE);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     public abstract FormBody newTokenForm();
 
+    /**
+     * Identifies the client in token cache, secrets must be signed with {@link TokenCache#sign(String)}.
+     */
+    protected abstract String getCacheIdentity(TokenCache cache);
+
+    private static final class IssuedToken {
+
+        private final String accessToken;
+        private final long expiresAt;
+
+        private IssuedToken(final String accessToken, final long expiresAt) {
+            this.accessToken = accessToken;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
+
+        private boolean isExpiring(final long now) {
+            return expiresAt - now <= RENEWAL_MARGIN_MILLIS;
+        }
+
+    }
 
 }
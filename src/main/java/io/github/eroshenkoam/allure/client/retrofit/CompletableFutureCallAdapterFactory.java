@@ -0,0 +1,137 @@
+package io.github.eroshenkoam.allure.client.retrofit;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Adapts service methods returning {@code CompletableFuture<T>} or {@code CompletionStage<T>}.
+ * <p>
+ * Calls are enqueued to the client dispatcher, so no thread is blocked while request is in flight.
+ * Futures are completed on dispatcher threads: use async stages for blocking continuations.
+ * Unsuccessful responses complete the future with {@link ResponseException}.
+ */
+public class CompletableFutureCallAdapterFactory extends CallAdapter.Factory {
+
+    @Override
+    public CallAdapter<?, ?> get(final Type returnType,
+                                 final Annotation[] annotations,
+                                 final Retrofit retrofit) {
+        final Class<?> rawType = getRawType(returnType);
+        if (rawType != CompletableFuture.class && rawType != CompletionStage.class) {
+            return null;
+        }
+        if (!(returnType instanceof ParameterizedType)) {
+            throw new IllegalStateException(String.format(
+                    "%s return type must be parameterized as %s<Foo>", rawType.getSimpleName(), rawType.getSimpleName()
+            ));
+        }
+        return new FutureCallAdapter<>(getParameterUpperBound(0, (ParameterizedType) returnType));
+    }
+
+    public static <T> CompletableFuture<T> toFuture(final Call<T> call) {
+        return enqueue(call, Response::body);
+    }
+
+    /**
+     * Same as {@link #toFuture(Call)}, but keeps the response, so callers can inspect
+     * headers and timings of the exchange.
+     */
+    public static <T> CompletableFuture<Response<T>> toResponseFuture(final Call<T> call) {
+        return enqueue(call, Function.identity());
+    }
+
+    /**
+     * Waits for the future, failure of the request is rethrown as is.
+     */
+    public static <T> T await(final CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for request");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause() instanceof CompletionException
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ResponseException(e);
+        }
+    }
+
+    private static <T, R> CompletableFuture<R> enqueue(final Call<T> call,
+                                                       final Function<Response<T>, R> mapper) {
+        final CompletableFuture<R> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                call.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        call.enqueue(new Callback<>() {
+            @Override
+            public void onResponse(final Call<T> call, final Response<T> response) {
+                if (response.isSuccessful()) {
+                    future.complete(mapper.apply(response));
+                } else {
+                    future.completeExceptionally(new ResponseException(response.code(), getErrorMessage(response)));
+                }
+            }
+
+            @Override
+            public void onFailure(final Call<T> call, final Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private static String getErrorMessage(final Response<?> response) {
+        try (ResponseBody errorBody = response.errorBody()) {
+            return Objects.isNull(errorBody) ? response.message() : errorBody.string();
+        } catch (IOException e) {
+            return response.message();
+        }
+    }
+
+    private static class FutureCallAdapter<T> implements CallAdapter<T, CompletableFuture<T>> {
+
+        private final Type responseType;
+
+        FutureCallAdapter(final Type responseType) {
+            this.responseType = responseType;
+        }
+
+        @Override
+        public Type responseType() {
+            return responseType;
+        }
+
+        @Override
+        public CompletableFuture<T> adapt(final Call<T> call) {
+            return toFuture(call);
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+package io.github.eroshenkoam.allure.client.retrofit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+import retrofit2.http.Multipart;
+import retrofit2.http.Streaming;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of in-flight requests and adapts the limit to server load
+ * with additive-increase/multiplicative-decrease.
+ * <p>
+ * Every successful request grows the limit by {@code 1 / limit}, so the limit grows
+ * by one per round of requests. Overload responses (429, 502, 503, 504), connection errors
+ * and latency far above the endpoint baseline shrink the limit multiplicatively,
+ * at most once per cooldown period.
+ * <p>
+ * Attachment transfers ({@link Streaming} downloads and {@link Multipart} uploads) are not limited:
+ * they are admitted by transfer byte budget, and their latency says nothing about server load.
+ */
+public class ConcurrencyLimitInterceptor implements Interceptor {
+
+    private static final Set<Integer> OVERLOAD_CODES = Set.of(429, 502, 503, 504);
+
+    private static final double BACKOFF_RATIO = 0.7;
+    private static final double LATENCY_TOLERANCE = 3.0;
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final Map<String, EndpointStats> endpoints = new TreeMap<>();
+
+    private double limit;
+    private int inFlight;
+    private int queueDepth;
+    private long lastDecreaseNanos;
+
+    public ConcurrencyLimitInterceptor(final int initialLimit, final int minLimit, final int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid concurrency limits: min %s, max %s", minLimit, maxLimit)
+            );
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime() - DECREASE_COOLDOWN_NANOS;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (isTransfer(request)) {
+            return chain.proceed(request);
+        }
+        final String endpoint = getEndpoint(request);
+
+        acquire();
+        final long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            final Response response = chain.proceed(request);
+            overloaded = OVERLOAD_CODES.contains(response.code());
+            return response;
+        } finally {
+            release(endpoint, System.nanoTime() - start, overloaded);
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queueDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, EndpointStats> getEndpointStats() {
+        lock.lock();
+        try {
+            final Map<String, EndpointStats> result = new TreeMap<>();
+            endpoints.forEach((name, stats) -> result.put(name, stats.copy()));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("limit %s, in flight %s, queued %s", (int) limit, inFlight, queueDepth);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() throws InterruptedIOException {
+        lock.lock();
+        try {
+            queueDepth++;
+            try {
+                while (inFlight >= (int) limit) {
+                    available.await();
+                }
+            } finally {
+                queueDepth--;
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for request slot");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(final String endpoint, final long latencyNanos, final boolean overloaded) {
+        lock.lock();
+        try {
+            final EndpointStats stats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+            final boolean slow = stats.record(latencyNanos, overloaded);
+            if (overloaded || slow) {
+                final long now = System.nanoTime();
+                if (now - lastDecreaseNanos >= DECREASE_COOLDOWN_NANOS) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                }
+            } else if (inFlight >= (int) limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isTransfer(final Request request) {
+        final Invocation invocation = request.tag(Invocation.class);
+        if (Objects.isNull(invocation)) {
+            return false;
+        }
+        final Method method = invocation.method();
+        return method.isAnnotationPresent(Streaming.class) || method.isAnnotationPresent(Multipart.class);
+    }
+
+    private static String getEndpoint(final Request request) {
+        final Invocation invocation = request.tag(Invocation.class);
+        if (Objects.nonNull(invocation)) {
+            final Method method = invocation.method();
+            return String.format("%s#%s", method.getDeclaringClass().getSimpleName(), method.getName());
+        }
+        return String.format("%s %s", request.method(), request.url().encodedPath());
+    }
+
+    /**
+     * Latency and error statistics of single endpoint.
+     */
+    public static class EndpointStats {
+
+        private long requests;
+        private long overloads;
+        private long slowRequests;
+
+        private long baselineNanos;
+        private long lastLatencyNanos;
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getOverloads() {
+            return overloads;
+        }
+
+        public long getSlowRequests() {
+            return slowRequests;
+        }
+
+        public long getBaselineLatency(final TimeUnit unit) {
+            return unit.convert(baselineNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public long getLastLatency(final TimeUnit unit) {
+            return unit.convert(lastLatencyNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private boolean record(final long latencyNanos, final boolean overloaded) {
+            requests++;
+            lastLatencyNanos = latencyNanos;
+            if (overloaded) {
+                overloads++;
+                return false;
+            }
+            if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+                baselineNanos = latencyNanos;
+                return false;
+            }
+            baselineNanos += (long) ((latencyNanos - baselineNanos) * BASELINE_DRIFT);
+            final boolean slow = latencyNanos > baselineNanos * LATENCY_TOLERANCE;
+            if (slow) {
+                slowRequests++;
+            }
+            return slow;
+        }
+
+        private EndpointStats copy() {
+            final EndpointStats copy = new EndpointStats();
+            copy.requests = requests;
+            copy.overloads = overloads;
+            copy.slowRequests = slowRequests;
+            copy.baselineNanos = baselineNanos;
+            copy.lastLatencyNanos = lastLatencyNanos;
+            return copy;
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.eroshenkoam.allure.client.retrofit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks service method that uses non-idempotent HTTP method (POST, PATCH)
+ * but can be safely repeated, e.g. replaces the whole collection of values.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
@@ -30,4 +30,9 @@ public class LoginPasswordAuthenticator extends BaseAuthenticator {
                 .build();
     }
 
+    @Override
+    protected String getCacheIdentity(final TokenCache cache) {
+        return String.format("%s/%s", PASSWORD, username);
+    }
+
 }
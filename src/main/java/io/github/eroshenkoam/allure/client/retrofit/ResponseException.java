@@ -2,8 +2,22 @@ package io.github.eroshenkoam.allure.client.retrofit;
 
 public class ResponseException extends RuntimeException {
 
+    private static final int UNKNOWN_CODE = -1;
+
+    private final int code;
+
     public ResponseException(final Exception e) {
         super(e);
+        this.code = UNKNOWN_CODE;
+    }
+
+    public ResponseException(final int code, final String message) {
+        super(String.format("Request failed with code %s: %s", code, message));
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
     }
 
 }
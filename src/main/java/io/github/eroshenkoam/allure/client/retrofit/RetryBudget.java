@@ -0,0 +1,44 @@
+package io.github.eroshenkoam.allure.client.retrofit;
+
+/**
+ * Token bucket that caps retries at a percentage of total traffic.
+ * <p>
+ * Every request deposits {@code ratio} tokens and every retry withdraws one token,
+ * so in the long run no more than {@code ratio * requests} retries are made.
+ * The bucket starts full to allow retries before enough traffic is observed.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+
+    private double tokens;
+
+    public RetryBudget(final double ratio, final int maxTokens) {
+        if (ratio < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid retry budget: ratio %s, max tokens %s", ratio, maxTokens)
+            );
+        }
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+
+}
@@ -5,44 +5,72 @@ import okhttp3.Request;
 import okhttp3.Response;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 public class RetryInterceptor implements Interceptor {
 
-    private static final int UNAUTHORIZED_CODE = 401;
+    private static final double DEFAULT_BUDGET_RATIO = 0.1;
+    private static final int DEFAULT_BUDGET_TOKENS = 100;
 
-    private final long delayInMillis;
-    private final int maxRetries;
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
 
     public RetryInterceptor(final int maxRetries, final long delayInMillis) {
-        this.delayInMillis = delayInMillis;
-        this.maxRetries = maxRetries;
+        this(
+                new RetryPolicy(maxRetries, delayInMillis, TimeUnit.SECONDS.toMillis(30)),
+                new RetryBudget(DEFAULT_BUDGET_RATIO, DEFAULT_BUDGET_TOKENS)
+        );
+    }
+
+    public RetryInterceptor(final RetryPolicy policy, final RetryBudget budget) {
+        this.policy = policy;
+        this.budget = budget;
     }
 
     @Override
     public Response intercept(final Chain chain) throws IOException {
         final Request request = chain.request();
+        budget.onRequest();
 
         int tryCount = 0;
+        long delayInMillis = 0;
         while (true) {
             tryCount += 1;
+            Response response = null;
+            IOException error = null;
             try {
-                final Response response = chain.proceed(request);
-                if (response.isSuccessful() || response.code() == UNAUTHORIZED_CODE || tryCount >= maxRetries) {
+                response = chain.proceed(request);
+                if (response.isSuccessful() || !policy.isRetryable(request, response)) {
                     return response;
-                } else {
-                    response.close();
                 }
-                response.close();
             } catch (IOException e) {
-                if (tryCount >= maxRetries) {
+                if (!policy.isRetryable(request, e)) {
                     throw e;
                 }
+                error = e;
             }
-            try {
-                Thread.sleep(delayInMillis);
-            } catch (InterruptedException e) {
-                //do nothing
+            if (tryCount >= policy.getMaxAttempts() || chain.call().isCanceled() || !budget.tryAcquire()) {
+                if (Objects.nonNull(response)) {
+                    return response;
+                }
+                throw error;
             }
+            delayInMillis = policy.nextDelay(delayInMillis, response);
+            if (Objects.nonNull(response)) {
+                response.close();
+            }
+            sleep(delayInMillis);
+        }
+    }
+
+    private static void sleep(final long delayInMillis) throws InterruptedIOException {
+        try {
+            Thread.sleep(delayInMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for retry");
         }
     }
 
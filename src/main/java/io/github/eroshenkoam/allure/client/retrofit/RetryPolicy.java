@@ -0,0 +1,110 @@
+package io.github.eroshenkoam.allure.client.retrofit;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which requests may be retried and how long to wait between attempts.
+ * <p>
+ * Requests with idempotent HTTP methods and service methods marked with {@link Idempotent}
+ * are retried on connection errors, 408 and 5xx responses. Other requests are retried only
+ * when the server did not process them: connection could not be established or 429 returned.
+ * Delays use decorrelated jitter unless the server sends {@code Retry-After}.
+ */
+public class RetryPolicy {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+    private static final int REQUEST_TIMEOUT_CODE = 408;
+    private static final int TOO_MANY_REQUESTS_CODE = 429;
+    private static final int SERVER_ERROR_CODE = 500;
+
+    private static final String RETRY_AFTER_HEADER_NAME = "Retry-After";
+
+    private static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryPolicy(final int maxAttempts, final long baseDelayMillis, final long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isSafe(final Request request) {
+        if (IDEMPOTENT_METHODS.contains(request.method())) {
+            return true;
+        }
+        final Invocation invocation = request.tag(Invocation.class);
+        return Objects.nonNull(invocation) && invocation.method().isAnnotationPresent(Idempotent.class);
+    }
+
+    public boolean isRetryable(final Request request, final Response response) {
+        final int code = response.code();
+        if (code == TOO_MANY_REQUESTS_CODE) {
+            return true;
+        }
+        return (code == REQUEST_TIMEOUT_CODE || code >= SERVER_ERROR_CODE) && isSafe(request);
+    }
+
+    public boolean isRetryable(final Request request, final IOException e) {
+        if (e instanceof ConnectException || e instanceof UnknownHostException) {
+            return true;
+        }
+        return isSafe(request);
+    }
+
+    /**
+     * Returns delay before next attempt.
+     *
+     * @param previousDelayMillis delay before previous attempt or 0 for the first retry
+     * @param response            failed response or null for connection errors
+     */
+    public long nextDelay(final long previousDelayMillis, final Response response) {
+        final Optional<Long> retryAfter = Optional.ofNullable(response).flatMap(RetryPolicy::getRetryAfter);
+        if (retryAfter.isPresent()) {
+            return Math.min(MAX_RETRY_AFTER_MILLIS, Math.max(0, retryAfter.get()));
+        }
+        final long upperBound = Math.max(baseDelayMillis, previousDelayMillis * 3);
+        final long delay = ThreadLocalRandom.current().nextLong(baseDelayMillis, upperBound + 1);
+        return Math.min(maxDelayMillis, delay);
+    }
+
+    private static Optional<Long> getRetryAfter(final Response response) {
+        final String value = response.header(RETRY_AFTER_HEADER_NAME);
+        if (Objects.isNull(value) || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                final ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Optional.of(Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+}
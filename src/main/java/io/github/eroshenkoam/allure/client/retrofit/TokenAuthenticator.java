@@ -24,4 +24,9 @@ public class TokenAuthenticator extends BaseAuthenticator {
                 .build();
     }
 
+    @Override
+    protected String getCacheIdentity(final TokenCache cache) {
+        return String.format("apitoken/%s", cache.sign(token));
+    }
+
 }
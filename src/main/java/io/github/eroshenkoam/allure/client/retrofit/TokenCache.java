@@ -0,0 +1,156 @@
+package io.github.eroshenkoam.allure.client.retrofit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+
+/**
+ * Stores issued access tokens in local file so that subsequent runs
+ * against the same endpoint with the same credentials skip authentication.
+ * <p>
+ * Entries are keyed by endpoint and identity of the client, credentials are never stored.
+ * When identity is a secret itself, it is signed with random secret of the file, see {@link #sign(String)},
+ * so the file can not be used to check guessed secrets without that file.
+ */
+public class TokenCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SECRET_SIZE = 32;
+
+    private final Path file;
+
+    private String secret;
+
+    public TokenCache(final Path file) {
+        this.file = file;
+    }
+
+    public synchronized Optional<Entry> load(final String key) {
+        return Optional.ofNullable(read().getTokens().get(key))
+                .filter(entry -> entry.getExpiresAt() > System.currentTimeMillis());
+    }
+
+    /**
+     * Signs value with HMAC keyed by random secret of the cache file, the secret is created on first use.
+     */
+    public synchronized String sign(final String value) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(getSecret(read())), HMAC_ALGORITHM));
+            return HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized void store(final String key, final Entry entry) {
+        final Content content = read();
+        final long now = System.currentTimeMillis();
+        content.setSecret(getSecret(content));
+        content.getTokens().values().removeIf(existing -> existing.getExpiresAt() <= now);
+        content.getTokens().put(key, entry);
+        try {
+            final Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            final Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                restrictPermissions(temp);
+                MAPPER.writeValue(temp.toFile(), content);
+                move(temp, file);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            System.out.printf("Could not store token cache [%s]: %s\n", file, e.getMessage());
+        }
+    }
+
+    private Content read() {
+        if (Files.notExists(file)) {
+            return new Content();
+        }
+        try {
+            final Content content = MAPPER.readValue(file.toFile(), Content.class);
+            if (Objects.isNull(content.getTokens())) {
+                content.setTokens(new HashMap<>());
+            }
+            return content;
+        } catch (IOException e) {
+            System.out.printf("Could not read token cache [%s]: %s\n", file, e.getMessage());
+            return new Content();
+        }
+    }
+
+    /**
+     * Returns secret of the file, or secret of this cache when the file has none yet.
+     */
+    private String getSecret(final Content content) {
+        if (Objects.nonNull(content.getSecret())) {
+            secret = content.getSecret();
+        }
+        if (Objects.isNull(secret)) {
+            final byte[] bytes = new byte[SECRET_SIZE];
+            new SecureRandom().nextBytes(bytes);
+            secret = Base64.getEncoder().encodeToString(bytes);
+        }
+        return secret;
+    }
+
+    private static void restrictPermissions(final Path path) throws IOException {
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            //not a posix file system
+        }
+    }
+
+    private static void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Content {
+
+        private String secret;
+        private Map<String, Entry> tokens = new HashMap<>();
+
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Entry {
+
+        private String accessToken;
+        private long expiresAt;
+
+    }
+
+}
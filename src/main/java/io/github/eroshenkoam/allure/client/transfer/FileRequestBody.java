@@ -0,0 +1,49 @@
+package io.github.eroshenkoam.allure.client.transfer;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Request body that streams file content from disk with {@link FileChannel#transferTo}.
+ * <p>
+ * File is reopened on every write, so the body may be sent again on retry.
+ */
+public class FileRequestBody extends RequestBody {
+
+    private final MediaType contentType;
+    private final Path file;
+
+    public FileRequestBody(final MediaType contentType, final Path file) {
+        this.contentType = contentType;
+        this.file = file;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return Files.size(file);
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, sink);
+            }
+        }
+    }
+
+}
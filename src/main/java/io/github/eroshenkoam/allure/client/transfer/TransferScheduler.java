@@ -0,0 +1,146 @@
+package io.github.eroshenkoam.allure.client.transfer;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits attachment transfers by their declared size against in-flight byte budget.
+ * <p>
+ * Transfers are admitted in arrival order, so a large transfer is not starved by small ones.
+ * Transfer larger than the whole budget is admitted alone. Transfers of unknown size
+ * are counted as {@link #MIN_TRANSFER_BYTES}.
+ */
+public class TransferScheduler {
+
+    public static final long DEFAULT_BUDGET_BYTES = 256L * 1024 * 1024;
+    public static final long MIN_TRANSFER_BYTES = 64L * 1024;
+
+    private final long budgetBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final Queue<Object> waiting = new ArrayDeque<>();
+
+    private int inFlight;
+    private long inFlightBytes;
+    private long maxInFlightBytes;
+    private long transferredBytes;
+
+    public TransferScheduler(final long budgetBytes) {
+        if (budgetBytes < 1) {
+            throw new IllegalArgumentException(String.format("Invalid transfer budget: %s", budgetBytes));
+        }
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Waits until transfer of given size fits into the budget.
+     *
+     * @param contentLength declared content length, may be {@code null}
+     */
+    public Permit acquire(final Long contentLength) throws InterruptedIOException {
+        final long bytes = Math.max(MIN_TRANSFER_BYTES, Objects.isNull(contentLength) ? 0 : contentLength);
+        final Object waiter = new Object();
+        lock.lock();
+        try {
+            waiting.add(waiter);
+            try {
+                while (waiting.peek() != waiter || (inFlight > 0 && inFlightBytes + bytes > budgetBytes)) {
+                    available.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for transfer budget");
+            } finally {
+                waiting.remove(waiter);
+                available.signalAll();
+            }
+            inFlight++;
+            inFlightBytes += bytes;
+            maxInFlightBytes = Math.max(maxInFlightBytes, inFlightBytes);
+            return new Permit(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getInFlightBytes() {
+        lock.lock();
+        try {
+            return inFlightBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format(
+                    "budget %s MB, in flight %s (%s MB, max %s MB), queued %s, transferred %s MB",
+                    toMegabytes(budgetBytes), inFlight, toMegabytes(inFlightBytes),
+                    toMegabytes(maxInFlightBytes), waiting.size(), toMegabytes(transferredBytes)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(final long bytes) {
+        lock.lock();
+        try {
+            inFlight--;
+            inFlightBytes -= bytes;
+            transferredBytes += bytes;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long toMegabytes(final long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /**
+     * Admitted transfer, returns its bytes to the budget on close.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long bytes;
+        private boolean released;
+
+        private Permit(final long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(bytes);
+            }
+        }
+
+    }
+
+}
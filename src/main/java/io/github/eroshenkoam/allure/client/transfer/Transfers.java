@@ -0,0 +1,123 @@
+package io.github.eroshenkoam.allure.client.transfer;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Moves attachment contents between HTTP bodies and files without buffering whole contents on heap.
+ * <p>
+ * Download endpoints must be annotated with {@link retrofit2.http.Streaming}, otherwise Retrofit
+ * reads the body into memory before it gets here.
+ */
+public final class Transfers {
+
+    private static final long CHUNK_SIZE = 1024 * 1024;
+
+    private Transfers() {
+    }
+
+    /**
+     * Writes response body into file and closes the body.
+     *
+     * @return number of written bytes
+     */
+    public static long download(final ResponseBody body, final Path target) throws IOException {
+        try (ResponseBody content = body) {
+            return write(content.source(), target);
+        }
+    }
+
+    /**
+     * Writes source into file.
+     * Content is written to temporary file first, so the target never holds partial content.
+     *
+     * @return number of written bytes
+     */
+    public static long write(final BufferedSource source, final Path target) throws IOException {
+        final Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "download", ".tmp");
+        try {
+            final long length;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                length = transfer(source, channel);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return length;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Copies source into file channel starting at its current size.
+     */
+    public static long transfer(final BufferedSource source, final FileChannel channel) throws IOException {
+        final long start = channel.size();
+        long position = start;
+        while (!source.exhausted()) {
+            position += channel.transferFrom(source, position, CHUNK_SIZE);
+        }
+        return position - start;
+    }
+
+    /**
+     * Creates request body streaming file content from disk.
+     */
+    public static RequestBody upload(final String contentType, final Path file) {
+        return new FileRequestBody(parse(contentType), file);
+    }
+
+    /**
+     * Creates request body streaming content of known length, the content is opened again on every write.
+     */
+    public static RequestBody upload(final String contentType, final long contentLength, final Content content) {
+        final MediaType mediaType = parse(contentType);
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return mediaType;
+            }
+
+            @Override
+            public long contentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public void writeTo(final BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(content.open())) {
+                    sink.writeAll(source);
+                }
+            }
+        };
+    }
+
+    private static MediaType parse(final String contentType) {
+        return Objects.isNull(contentType) ? null : MediaType.parse(contentType);
+    }
+
+    /**
+     * Opens content to upload.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        InputStream open() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,406 @@
+package io.github.eroshenkoam.allure.command;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.github.eroshenkoam.allure.backup.ArchiveBackupStorage;
+import io.github.eroshenkoam.allure.backup.BackupChecksums;
+import io.github.eroshenkoam.allure.backup.BackupManifest;
+import io.github.eroshenkoam.allure.backup.BackupManifest.Fingerprint;
+import io.github.eroshenkoam.allure.backup.BackupStorage;
+import io.github.eroshenkoam.allure.backup.BlobStore;
+import io.github.eroshenkoam.allure.backup.ChecksumBackupStorage;
+import io.github.eroshenkoam.allure.client.ServiceBuilder;
+import io.github.eroshenkoam.allure.client.SharedStepScenarioService;
+import io.github.eroshenkoam.allure.client.SharedStepService;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate.Part;
+import io.github.eroshenkoam.allure.client.TestCaseAggregateLoader;
+import io.github.eroshenkoam.allure.client.TestCaseScenarioService;
+import io.github.eroshenkoam.allure.client.TestCaseService;
+import io.github.eroshenkoam.allure.client.dto.SharedStep;
+import io.github.eroshenkoam.allure.client.dto.SharedStepAttachment;
+import io.github.eroshenkoam.allure.client.dto.SharedStepUpdate;
+import io.github.eroshenkoam.allure.client.dto.TestCase;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAuditEntry;
+import io.github.eroshenkoam.allure.client.transfer.TransferScheduler;
+import io.github.eroshenkoam.allure.execution.Pipeline;
+import okhttp3.ResponseBody;
+import picocli.CommandLine;
+import retrofit2.Call;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Backs up test cases and shared steps of a project into backup directory.
+ */
+public abstract class AbstractBackupCommand extends AbstractBackupRestoreCommand {
+
+    private final static ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String SCENARIO_FIELD = "scenario";
+
+    @CommandLine.Option(
+            names = {"--backup.incremental"},
+            description = "Fetch only test cases changed since the base backup",
+            defaultValue = "${env:BACKUP_INCREMENTAL}"
+    )
+    protected boolean backupIncremental;
+
+    @CommandLine.Option(
+            names = {"--backup.base"},
+            description = "Previous backup to link unchanged test cases from (backup path by default)",
+            defaultValue = "${env:BACKUP_BASE}"
+    )
+    protected Path backupBase;
+
+    @CommandLine.Option(
+            names = {"--backup.raw"},
+            description = "Store scenarios as received, without mapping them to known fields",
+            defaultValue = "${env:BACKUP_RAW}"
+    )
+    protected boolean backupRaw;
+
+    @CommandLine.Option(
+            names = {"--backup.dedup"},
+            description = "Store attachment contents once in content-addressed blob store",
+            defaultValue = "${env:BACKUP_DEDUP}"
+    )
+    protected boolean backupDedup;
+
+    /**
+     * Backs up project into backup directory, stages of its pipelines run on given executors.
+     * Failed backup does not replace previous archive, so test cases that failed are not lost from it.
+     *
+     * @param backupBase previous backup to link unchanged test cases from, backup directory when null
+     * @return {@code true} when all test cases and shared steps were backed up
+     */
+    protected boolean backupProject(final ServiceBuilder builder,
+                                    final Long projectId,
+                                    final Path backupDir,
+                                    final Path backupBase,
+                                    final Executor executor,
+                                    final Executor transferLane) throws IOException {
+        final long backupTime = System.currentTimeMillis();
+        Files.createDirectories(backupDir);
+        final Path baseDir = Optional.ofNullable(backupBase).orElse(backupDir);
+        final BackupManifest base = backupIncremental ? BackupManifest.read(baseDir) : new BackupManifest();
+        if (backupIncremental) {
+            System.out.printf(
+                    "Incremental backup from [%s] with %s test cases\n", baseDir, base.getTestCases().size()
+            );
+        }
+        final Map<Long, Fingerprint> pending = new ConcurrentHashMap<>();
+        final Map<Long, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+        final BlobStore blobs = backupDedup ? new BlobStore(backupDir, backupBase) : null;
+        final boolean hasPreviousArchive = BackupStorage.Format.ARCHIVE.equals(backupFormat)
+                && Files.exists(backupDir.resolve(ArchiveBackupStorage.FILE_NAME));
+        final BackupChecksums checksums;
+        final boolean success;
+        try (ChecksumBackupStorage storage = new ChecksumBackupStorage(
+                BackupStorage.create(backupFormat, backupDir),
+                backupIncremental ? BackupChecksums.read(baseDir) : null);
+             BackupStorage baseStorage = base.getTestCases().isEmpty()
+                     ? null : BackupStorage.open(backupFormat, baseDir)) {
+            success = backup(
+                    builder, projectId, storage, baseStorage, base, blobs, pending, fingerprints, executor, transferLane
+            );
+            if (!success && hasPreviousArchive) {
+                storage.discard();
+            }
+            checksums = storage.getChecksums();
+        }
+        if (!success && hasPreviousArchive) {
+            System.out.printf("Backup of project [%s] failed, previous archive is kept\n", projectId);
+            return false;
+        }
+        checksums.write(backupDir);
+
+        if (Objects.nonNull(blobs)) {
+            blobs.saveIndex();
+        }
+        new BackupManifest()
+                .setProjectId(projectId)
+                .setBackupTime(backupTime)
+                .setTestCases(new TreeMap<>(fingerprints))
+                .write(backupDir);
+        return success;
+    }
+
+    private boolean backup(final ServiceBuilder builder,
+                           final Long projectId,
+                           final BackupStorage storage,
+                           final BackupStorage baseStorage,
+                           final BackupManifest base,
+                           final BlobStore blobs,
+                           final Map<Long, Fingerprint> pending,
+                           final Map<Long, Fingerprint> fingerprints,
+                           final Executor executor,
+                           final Executor transferLane) {
+        final int concurrency = runtime.getConcurrency();
+        final int writers = Math.max(1, concurrency / 4);
+        final int transferConcurrency = runtime.getTransferConcurrency();
+
+        final SharedStepService ssService = builder.create(SharedStepService.class);
+        final SharedStepScenarioService ssScenarioService = builder.create(SharedStepScenarioService.class);
+        final Pipeline<Long, SharedStepBackup> sharedSteps = runtime.<Long>pipeline(
+                String.format("backup shared steps of project [%s]", projectId), executor
+        )
+                .stage("metadata", concurrency, (sharedStepId) -> getSharedStep(
+                        ssService, ssScenarioService, sharedStepId
+                ))
+                .stage("scenario", concurrency, (backup) -> backupRaw
+                        ? backup.setRawScenario(executeRequest(ssScenarioService.getRawScenario(backup.getId())))
+                        : backup.setScenario(executeRequest(ssScenarioService.getScenario(backup.getId())))
+                )
+                .stage("attachments", transferConcurrency, transferLane, (backup) -> downloadSharedStepAttachments(
+                        ssScenarioService, storage, blobs, backup
+                ))
+                .stage("write", writers, (backup) -> {
+                    writeBackup(storage, getSharedStepEntry(backup.getId()), backup, backup.getRawScenario());
+                    return backup;
+                });
+
+        final TestCaseService tcService = builder.create(TestCaseService.class);
+        final TestCaseScenarioService tcScenarioService = builder.create(TestCaseScenarioService.class);
+        final TestCaseAggregateLoader loader = new TestCaseAggregateLoader(builder, getPageSize());
+        final Pipeline<TestCase, TestCaseBackup> testCases = runtime.<TestCase>pipeline(
+                String.format("backup test cases of project [%s]", projectId), executor
+        )
+                .stage("changes", concurrency, (testCase) -> getChangedTestCase(
+                        loader, storage, baseStorage, base, blobs, fingerprints, testCase
+                ))
+                .stage("metadata", concurrency, (testCaseId) -> getTestCase(loader, pending, testCaseId))
+                .stage("scenario", concurrency, (backup) -> backupRaw
+                        ? backup.setRawScenario(executeRequest(tcScenarioService.getRawScenario(backup.getId())))
+                        : backup.setScenario(executeRequest(tcScenarioService.getScenario(backup.getId())))
+                )
+                .stage("attachments", transferConcurrency, transferLane, (backup) -> downloadTestCaseAttachments(
+                        tcService, storage, blobs, backup
+                ))
+                .stage("write", writers, (backup) -> {
+                    writeBackup(storage, getTestCaseEntry(backup.getId()), backup, backup.getRawScenario());
+                    fingerprints.put(backup.getId(), pending.remove(backup.getId()));
+                    return backup;
+                });
+
+        final CompletableFuture<Boolean> sharedStepsResult = startPipeline(
+                sharedSteps, streamSharedSteps(ssService, projectId)
+        );
+        final CompletableFuture<Boolean> testCasesResult = startPipeline(testCases, stream(
+                (page, size) -> tcService.findByRql(projectId, "true", page, size)
+        ));
+        return sharedStepsResult.join() & testCasesResult.join();
+    }
+
+    /**
+     * Writes entity backup, raw scenario is copied token by token without mapping it to objects.
+     * Other properties are written by their serializers straight into the output.
+     */
+    private static void writeBackup(final BackupStorage storage,
+                                    final String name,
+                                    final Object backup,
+                                    final TokenBuffer rawScenario) throws IOException {
+        try (OutputStream output = storage.create(name);
+             JsonGenerator generator = MAPPER.getFactory().createGenerator(output)) {
+            if (Objects.isNull(rawScenario)) {
+                MAPPER.writeValue(generator, backup);
+                return;
+            }
+            final SerializerProvider provider = MAPPER.getSerializerProviderInstance();
+            final Iterator<PropertyWriter> properties = provider.findValueSerializer(backup.getClass()).properties();
+            generator.writeStartObject();
+            while (properties.hasNext()) {
+                final PropertyWriter property = properties.next();
+                if (SCENARIO_FIELD.equals(property.getName())) {
+                    generator.writeFieldName(SCENARIO_FIELD);
+                    rawScenario.serialize(generator);
+                } else {
+                    writeProperty(generator, provider, property, backup);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeProperty(final JsonGenerator generator,
+                                      final SerializerProvider provider,
+                                      final PropertyWriter property,
+                                      final Object backup) throws IOException {
+        try {
+            property.serializeAsField(backup, generator, provider);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(String.format("Could not write property '%s'", property.getName()), e);
+        }
+    }
+
+    /**
+     * Returns id of test case to back up, or links unchanged test case from the base backup and returns null.
+     */
+    private Long getChangedTestCase(final TestCaseAggregateLoader loader,
+                                    final BackupStorage storage,
+                                    final BackupStorage baseStorage,
+                                    final BackupManifest base,
+                                    final BlobStore blobs,
+                                    final Map<Long, Fingerprint> fingerprints,
+                                    final TestCase testCase) throws IOException {
+        final Long testCaseId = testCase.getId();
+        final Fingerprint known = base.getTestCases().get(testCaseId);
+        if (Objects.isNull(known) || !Objects.equals(known.getLastModifiedDate(), testCase.getLastModifiedDate())) {
+            return testCaseId;
+        }
+        if (Objects.isNull(baseStorage) || !baseStorage.exists(getTestCaseEntry(testCaseId))) {
+            return testCaseId;
+        }
+        final TestCaseAggregate aggregate = loader.load(testCaseId, EnumSet.of(Part.AUDIT));
+        if (!Objects.equals(known.getAuditId(), getLatestAuditId(aggregate))) {
+            return testCaseId;
+        }
+        final String prefix = getTestCasePrefix(testCaseId);
+        if (!hasBlobs(baseStorage, prefix, blobs)) {
+            return testCaseId;
+        }
+        storage.link(baseStorage, prefix);
+        fingerprints.put(testCaseId, known);
+        return null;
+    }
+
+    /**
+     * Checks that all contents referenced from entity backup are available in the blob store.
+     */
+    private static boolean hasBlobs(final BackupStorage storage,
+                                    final String prefix,
+                                    final BlobStore blobs) throws IOException {
+        for (String name : storage.list(prefix)) {
+            if (name.endsWith(BlobStore.REF_SUFFIX)) {
+                if (Objects.isNull(blobs) || !blobs.contains(BlobStore.readRef(storage, name))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Long getLatestAuditId(final TestCaseAggregate aggregate) {
+        return Optional.ofNullable(aggregate.getAudit()).orElse(List.of()).stream()
+                .map(TestCaseAuditEntry::getId)
+                .filter(Objects::nonNull)
+                .max(Long::compareTo)
+                .orElse(null);
+    }
+
+    private SharedStepBackup getSharedStep(final SharedStepService ssService,
+                                           final SharedStepScenarioService ssScenarioService,
+                                           final Long sharedStepId) throws IOException {
+        final SharedStep sharedStep = executeRequest(ssService.findOne(sharedStepId));
+
+        final SharedStepUpdate patch = new SharedStepUpdate()
+                .setName(sharedStep.getName());
+
+        final List<SharedStepAttachment> attachments = getAll(
+                (page, size) -> ssScenarioService.getAttachments(sharedStepId, page, size)
+        );
+
+        return new SharedStepBackup()
+                .setId(sharedStepId)
+                .setPatch(patch)
+                .setAttachments(attachments);
+    }
+
+    private SharedStepBackup downloadSharedStepAttachments(final SharedStepScenarioService ssScenarioService,
+                                                           final BackupStorage storage,
+                                                           final BlobStore blobs,
+                                                           final SharedStepBackup backup) throws IOException {
+        for (final SharedStepAttachment attachment : backup.getAttachments()) {
+            saveAttachment(
+                    ssScenarioService.getAttachmentContent(attachment.getId()),
+                    storage, getSharedStepAttachmentEntry(backup.getId(), attachment.getId()),
+                    blobs, attachment.getId(), attachment.getContentLength()
+            );
+        }
+        return backup;
+    }
+
+    private TestCaseBackup getTestCase(final TestCaseAggregateLoader loader,
+                                       final Map<Long, Fingerprint> pending,
+                                       final Long testCaseId) throws IOException {
+        System.out.printf("Backup test case with id '%s'\n", testCaseId);
+
+        final TestCaseAggregate aggregate = loader.load(testCaseId, EnumSet.of(
+                Part.TEST_CASE, Part.ISSUES, Part.MEMBERS, Part.CUSTOM_FIELDS, Part.ATTACHMENTS, Part.AUDIT
+        ));
+        final TestCase testCase = aggregate.getTestCase();
+        pending.put(testCaseId, new Fingerprint()
+                .setLastModifiedDate(testCase.getLastModifiedDate())
+                .setAuditId(getLatestAuditId(aggregate)));
+
+        return new TestCaseBackup()
+                .setId(testCaseId)
+                .setPatch(getTestCasePatch(aggregate))
+                .setIssues(aggregate.getIssues())
+                .setAttachments(aggregate.getAttachments());
+    }
+
+    private TestCaseBackup downloadTestCaseAttachments(final TestCaseService tcService,
+                                                       final BackupStorage storage,
+                                                       final BlobStore blobs,
+                                                       final TestCaseBackup backup) throws IOException {
+        for (final TestCaseAttachment attachment : backup.getAttachments()) {
+            saveAttachment(
+                    tcService.getAttachmentContent(attachment.getId()),
+                    storage, getTestCaseAttachmentEntry(backup.getId(), attachment.getId()),
+                    blobs, attachment.getId(), attachment.getContentLength()
+            );
+        }
+        return backup;
+    }
+
+    /**
+     * Saves attachment content as backup entry, or as reference to blob store when it is enabled.
+     * Content that is already in the blob store is not downloaded.
+     */
+    private void saveAttachment(final Call<ResponseBody> content,
+                                final BackupStorage storage,
+                                final String name,
+                                final BlobStore blobs,
+                                final Long attachmentId,
+                                final Long contentLength) throws IOException {
+        if (Objects.isNull(blobs)) {
+            try (TransferScheduler.Permit permit = transfers.acquire(contentLength);
+                 ResponseBody attachmentContent = executeRequest(content)) {
+                storage.write(name, attachmentContent.source());
+            }
+            return;
+        }
+        final Optional<String> known = blobs.getKnownHash(attachmentId, contentLength);
+        final String hash;
+        if (known.isPresent()) {
+            hash = known.get();
+        } else {
+            try (TransferScheduler.Permit permit = transfers.acquire(contentLength);
+                 ResponseBody attachmentContent = executeRequest(content)) {
+                hash = blobs.put(attachmentId, attachmentContent.source());
+            }
+        }
+        BlobStore.writeRef(storage, BlobStore.getRefName(name), hash);
+    }
+
+}
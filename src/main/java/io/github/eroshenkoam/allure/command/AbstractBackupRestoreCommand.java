@@ -1,33 +1,43 @@
 package io.github.eroshenkoam.allure.command;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.github.eroshenkoam.allure.backup.BackupStorage;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate;
 import io.github.eroshenkoam.allure.client.dto.Issue;
 import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
 import io.github.eroshenkoam.allure.client.dto.SharedStepAttachment;
 import io.github.eroshenkoam.allure.client.dto.SharedStepUpdate;
+import io.github.eroshenkoam.allure.client.dto.TestCase;
 import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
 import io.github.eroshenkoam.allure.client.dto.TestCasePatch;
+import io.github.eroshenkoam.allure.client.transfer.TransferScheduler;
+import io.github.eroshenkoam.allure.client.transfer.Transfers;
 import lombok.Data;
 import lombok.experimental.Accessors;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
 import picocli.CommandLine;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 public abstract class AbstractBackupRestoreCommand extends AbstractTestOpsCommand {
 
-    @CommandLine.Option(
-            names = {"--allure.project.id"},
-            description = "Allure TestOps project id",
-            defaultValue = "${env:ALLURE_PROJECT_ID}",
-            required = true
-    )
-    protected Long allureProjectId;
-
     @CommandLine.Option(
             names = {"--backup.path"},
             description = "Backup path",
@@ -36,8 +46,28 @@ public abstract class AbstractBackupRestoreCommand extends AbstractTestOpsComman
     )
     protected String backupPath;
 
+    @CommandLine.Option(
+            names = {"--backup.format"},
+            description = "Backup layout: ${COMPLETION-CANDIDATES}",
+            defaultValue = "${env:BACKUP_FORMAT:-directory}"
+    )
+    protected BackupStorage.Format backupFormat;
+
+    @CommandLine.Option(
+            names = {"--upload.batch.size"},
+            description = "Maximum size of attachments uploaded in single request in megabytes",
+            defaultValue = "${env:UPLOAD_BATCH_SIZE}"
+    )
+    protected Long uploadBatchSize;
+
+    protected static final String TEST_CASE_FILE_NAME = "testcase.json";
+
+    private static final long DEFAULT_UPLOAD_BATCH_BYTES = 32 * 1024 * 1024;
+    private static final int MAX_UPLOAD_BATCH_COUNT = 50;
+
     protected final ObjectMapper MAPPER = new ObjectMapper()
-            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
     protected Path getBackupDir() throws IOException {
         final Path backupDir = Paths.get(this.backupPath);
@@ -47,42 +77,205 @@ public abstract class AbstractBackupRestoreCommand extends AbstractTestOpsComman
         return backupDir;
     }
 
-    protected Path getBackupTestCaseDir(final Long testCaseId) throws IOException {
-        final Path testCaseDir = getBackupDir()
-                .resolve(String.format("tc-%s", testCaseId));
-        Files.createDirectories(testCaseDir);
-        return testCaseDir;
+    protected BackupStorage createBackupStorage() throws IOException {
+        return BackupStorage.create(backupFormat, getBackupDir());
+    }
+
+    protected BackupStorage openBackupStorage() throws IOException {
+        return BackupStorage.open(backupFormat, getBackupDir());
+    }
+
+    protected static String getTestCasePrefix(final Long testCaseId) {
+        return String.format("tc-%s/", testCaseId);
+    }
+
+    protected static String getTestCaseEntry(final Long testCaseId) {
+        return getTestCasePrefix(testCaseId) + TEST_CASE_FILE_NAME;
+    }
+
+    protected static String getTestCaseAttachmentEntry(final Long testCaseId, final Long attachmentId) {
+        return getTestCasePrefix(testCaseId) + String.format("attachment-%s", attachmentId);
+    }
+
+    protected static String getSharedStepPrefix(final Long sharedStepId) {
+        return String.format("ss-%s/", sharedStepId);
+    }
+
+    protected static String getSharedStepEntry(final Long sharedStepId) {
+        return getSharedStepPrefix(sharedStepId) + "sharedstep.json";
+    }
+
+    protected static String getSharedStepAttachmentEntry(final Long sharedStepId, final Long attachmentId) {
+        return getSharedStepPrefix(sharedStepId) + String.format("attachment-%s", attachmentId);
+    }
+
+    /**
+     * Creates request body streaming attachment content from backup.
+     */
+    protected static RequestBody getAttachmentBody(final BackupStorage storage,
+                                                   final String name,
+                                                   final String contentType) throws IOException {
+        final Optional<Path> file = storage.getFile(name);
+        if (file.isPresent()) {
+            return Transfers.upload(contentType, file.get());
+        }
+        return Transfers.upload(contentType, storage.size(name), () -> storage.open(name));
     }
 
-    protected Path getBackupTestCaseFile(final Long testCaseId) throws IOException {
-        return getBackupTestCaseDir(testCaseId)
-                .resolve("testcase.json");
+    /**
+     * Uploads attachments from backup, several attachments are sent in single multipart request
+     * as long as their total size fits upload batch size. Parts are streamed from backup storage.
+     * <p>
+     * Created attachments are matched to uploaded ones by name and size, the order of the response
+     * is relied on only between attachments with the same name and size.
+     *
+     * @return ids of created attachments by ids of backed up attachments
+     */
+    protected Map<Long, Long> uploadAttachments(final BackupStorage storage,
+                                                final List<AttachmentUpload> attachments,
+                                                final Uploader uploader) throws IOException {
+        final long maxBatchBytes = Optional.ofNullable(uploadBatchSize)
+                .map(megabytes -> megabytes * 1024 * 1024)
+                .orElse(DEFAULT_UPLOAD_BATCH_BYTES);
+        final Map<Long, Long> ids = new HashMap<>();
+        final Map<Long, String> batch = new LinkedHashMap<>();
+        final List<MultipartBody.Part> parts = new ArrayList<>();
+        long batchBytes = 0;
+        for (AttachmentUpload attachment : attachments) {
+            final RequestBody body = getAttachmentBody(storage, attachment.getEntry(), attachment.getContentType());
+            final long length = body.contentLength();
+            final boolean full = batchBytes + length > maxBatchBytes || batch.size() >= MAX_UPLOAD_BATCH_COUNT;
+            if (!batch.isEmpty() && full) {
+                ids.putAll(uploadBatch(batch, parts, batchBytes, uploader));
+                batch.clear();
+                parts.clear();
+                batchBytes = 0;
+            }
+            batch.put(attachment.getId(), getUploadKey(attachment.getName(), length));
+            parts.add(MultipartBody.Part.createFormData("file", attachment.getName(), body));
+            batchBytes += length;
+        }
+        if (!batch.isEmpty()) {
+            ids.putAll(uploadBatch(batch, parts, batchBytes, uploader));
+        }
+        return ids;
+    }
+
+    /**
+     * @param batch keys of uploaded attachments by their ids, in the order of parts
+     */
+    private Map<Long, Long> uploadBatch(final Map<Long, String> batch,
+                                        final List<MultipartBody.Part> parts,
+                                        final long batchBytes,
+                                        final Uploader uploader) throws IOException {
+        final List<CreatedAttachment> created;
+        try (TransferScheduler.Permit permit = transfers.acquire(batchBytes)) {
+            created = uploader.upload(List.copyOf(parts));
+        }
+        if (Objects.isNull(created) || created.size() != batch.size()) {
+            throw new IOException(String.format(
+                    "Uploaded %s attachments, but %s were created",
+                    batch.size(), Objects.isNull(created) ? 0 : created.size()
+            ));
+        }
+        final Map<String, Deque<Long>> createdIds = new HashMap<>();
+        for (CreatedAttachment attachment : created) {
+            createdIds.computeIfAbsent(
+                    getUploadKey(attachment.getName(), attachment.getContentLength()), key -> new ArrayDeque<>()
+            ).add(attachment.getId());
+        }
+        final Map<Long, Long> ids = new HashMap<>();
+        for (Map.Entry<Long, String> attachment : batch.entrySet()) {
+            final Deque<Long> candidates = createdIds.get(attachment.getValue());
+            if (Objects.isNull(candidates) || candidates.isEmpty()) {
+                throw new IOException(String.format(
+                        "Uploaded attachment [%s] is not among created attachments", attachment.getValue()
+                ));
+            }
+            ids.put(attachment.getKey(), candidates.poll());
+        }
+        return ids;
     }
 
-    protected Path getBackupTestCaseAttachmentFile(final Long testCaseId, final Long attachmentId) throws IOException {
-        return getBackupTestCaseDir(testCaseId)
-                .resolve(String.format("attachment-%s", attachmentId));
+    private static String getUploadKey(final String name, final Long contentLength) {
+        return String.format("%s/%s", name, contentLength);
     }
 
-    protected Path getBackupSharedStepDir(final Long sharedStepId) throws IOException {
-        final Path sharedStepDir = getBackupDir()
-                .resolve(String.format("ss-%s", sharedStepId));
-        Files.createDirectories(sharedStepDir);
-        return sharedStepDir;
+    /**
+     * Creates patch restoring fields of test case, aggregate must contain test case, members and custom fields.
+     */
+    protected static TestCasePatch getTestCasePatch(final TestCaseAggregate aggregate) {
+        final TestCase testCase = aggregate.getTestCase();
+        return new TestCasePatch()
+                .setName(testCase.getName())
+                .setFullName(testCase.getFullName())
+                .setStatusId(testCase.getStatus().getId())
+                .setWorkflowId(testCase.getWorkflow().getId())
+                .setDescription(testCase.getDescription())
+                .setPrecondition(testCase.getPrecondition())
+                .setExpectedResult(testCase.getExpectedResult())
+                .setDeleted(testCase.getDeleted())
+                .setExternal(testCase.getExternal())
+                .setAutomated(testCase.getAutomated())
+                .setTags(testCase.getTags())
+                .setLinks(testCase.getLinks())
+                .setMembers(aggregate.getMembers())
+                .setCustomFields(aggregate.getCustomFields());
     }
 
-    protected Path getBackupSharedStepFile(final Long sharedStepId) throws IOException {
-        return getBackupSharedStepDir(sharedStepId)
-                .resolve("sharedstep.json");
+    /**
+     * Sends multipart request creating attachments.
+     */
+    @FunctionalInterface
+    protected interface Uploader {
+
+        /**
+         * @return created attachments
+         */
+        List<CreatedAttachment> upload(List<MultipartBody.Part> parts) throws IOException;
+
     }
 
-    protected Path getBackupSharedStepAttachmentFile(
-            final Long sharedStepId,
-            final Long attachmentId) throws IOException {
-        return getBackupSharedStepDir(sharedStepId)
-                .resolve(String.format("attachment-%s", attachmentId));
+    /**
+     * Attachment created by upload request.
+     */
+    @Data
+    @Accessors(chain = true)
+    protected static class CreatedAttachment {
+
+        private Long id;
+        private String name;
+        private Long contentLength;
+
+        public static CreatedAttachment of(final TestCaseAttachment attachment) {
+            return new CreatedAttachment()
+                    .setId(attachment.getId())
+                    .setName(attachment.getName())
+                    .setContentLength(attachment.getContentLength());
+        }
+
+        public static CreatedAttachment of(final SharedStepAttachment attachment) {
+            return new CreatedAttachment()
+                    .setId(attachment.getId())
+                    .setName(attachment.getName())
+                    .setContentLength(attachment.getContentLength());
+        }
+
     }
 
+    /**
+     * Backed up attachment to upload.
+     */
+    @Data
+    @Accessors(chain = true)
+    protected static class AttachmentUpload {
+
+        private Long id;
+        private String name;
+        private String contentType;
+        private String entry;
+
+    }
 
     @Data
     @Accessors(chain = true)
@@ -94,6 +287,12 @@ public abstract class AbstractBackupRestoreCommand extends AbstractTestOpsComman
         private ScenarioNormalized scenario;
         private List<TestCaseAttachment> attachments;
 
+        /**
+         * Scenario as received from Allure TestOps, written instead of {@link #scenario} when present.
+         */
+        @JsonIgnore
+        private TokenBuffer rawScenario;
+
     }
 
     @Data
@@ -105,6 +304,12 @@ public abstract class AbstractBackupRestoreCommand extends AbstractTestOpsComman
         private ScenarioNormalized scenario;
         private List<SharedStepAttachment> attachments;
 
+        /**
+         * Scenario as received from Allure TestOps, written instead of {@link #scenario} when present.
+         */
+        @JsonIgnore
+        private TokenBuffer rawScenario;
+
     }
 
 }
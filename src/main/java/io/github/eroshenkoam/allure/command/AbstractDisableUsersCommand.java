@@ -6,7 +6,6 @@ import io.github.eroshenkoam.allure.client.ServiceBuilder;
 import io.github.eroshenkoam.allure.client.dto.Account;
 import io.github.eroshenkoam.allure.client.dto.AccountAuthority;
 import io.github.eroshenkoam.allure.client.dto.Authority;
-import io.github.eroshenkoam.allure.client.dto.Page;
 import okhttp3.ResponseBody;
 import retrofit2.Response;
 
@@ -34,8 +33,8 @@ public abstract class AbstractDisableUsersCommand extends AbstractTestOpsCommand
 
     private void disableUsers(final List<String> users,
                               final AccountService accountService,
-                              final AdminAccountService adminAccountService) throws IOException {
-        for (String user : users) {
+                              final AdminAccountService adminAccountService) throws Exception {
+        final boolean success = invokeParallel("disable users", users, (user) -> {
             final Response<Account> userResponse = accountService.findByUsername(user).execute();
             if (!userResponse.isSuccessful()) {
                 throw new RuntimeException(userResponse.message());
@@ -46,16 +45,15 @@ public abstract class AbstractDisableUsersCommand extends AbstractTestOpsCommand
             if (!authorityResponse.isSuccessful()) {
                 throw new RuntimeException(authorityResponse.message());
             }
+        });
+        if (!success) {
+            throw new IllegalStateException("Some users were not disabled");
         }
     }
 
     private List<String> getAllureUsernames(final AccountService accountService) throws IOException {
 
-        final Response<Page<Account>> accountsResponse = accountService.getAccounts("", 0, 1000).execute();
-        if (!accountsResponse.isSuccessful()) {
-            throw new RuntimeException(accountsResponse.message());
-        }
-        final List<Account> accounts = accountsResponse.body().getContent();
+        final List<Account> accounts = getAll((page, size) -> accountService.getAccounts("", page, size));
         return accounts.stream()
                 .map(Account::getUsername)
                 .collect(Collectors.toList());
@@ -31,13 +31,13 @@ public abstract class AbstractSyncGroupsCommand extends AbstractTestOpsCommand {
 
     private void syncAllureGroups(final Map<String, List<String>> groupUsers,
                                   final GroupService groupService) throws IOException {
-        final Page<Group> groups = executeRequest(groupService.find("", 0, 1000));
+        final List<Group> groups = getAll((page, size) -> groupService.find("", page, size));
 
         for (Map.Entry<String, List<String>> entry : groupUsers.entrySet()) {
             final String name = entry.getKey();
             final List<String> usernames = entry.getValue();
 
-            final Optional<Group> existing = groups.getContent().stream()
+            final Optional<Group> existing = groups.stream()
                     .filter(group -> group.getName().equals(name))
                     .findAny();
 
@@ -3,25 +3,36 @@ package io.github.eroshenkoam.allure.command;
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
 import io.github.eroshenkoam.allure.client.SharedStepService;
 import io.github.eroshenkoam.allure.client.TestCaseService;
-import io.github.eroshenkoam.allure.client.dto.Page;
 import io.github.eroshenkoam.allure.client.dto.SharedStep;
 import io.github.eroshenkoam.allure.client.dto.TestCase;
+import io.github.eroshenkoam.allure.client.paging.PageRequest;
+import io.github.eroshenkoam.allure.client.paging.PageSizeController;
+import io.github.eroshenkoam.allure.client.paging.PagedSource;
+import io.github.eroshenkoam.allure.client.paging.Paginator;
+import io.github.eroshenkoam.allure.client.paging.ShardedScanner;
+import io.github.eroshenkoam.allure.client.retrofit.CompletableFutureCallAdapterFactory;
+import io.github.eroshenkoam.allure.client.retrofit.ConcurrencyLimitInterceptor;
+import io.github.eroshenkoam.allure.client.retrofit.RetryBudget;
+import io.github.eroshenkoam.allure.client.retrofit.RetryPolicy;
+import io.github.eroshenkoam.allure.client.transfer.TransferScheduler;
+import io.github.eroshenkoam.allure.execution.ExecutionRuntime;
+import io.github.eroshenkoam.allure.execution.Pipeline;
 import okhttp3.Dispatcher;
 import picocli.CommandLine;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public abstract class AbstractTestOpsCommand implements Runnable {
 
@@ -53,6 +64,13 @@ public abstract class AbstractTestOpsCommand implements Runnable {
     )
     protected boolean allureInsecure;
 
+    @CommandLine.Option(
+            names = {"--allure.token.cache"},
+            description = "File to cache Allure TestOps access token between runs",
+            defaultValue = "${env:ALLURE_TOKEN_CACHE}"
+    )
+    protected Path allureTokenCache;
+
     @CommandLine.Option(
             names = {"--thread.count"},
             description = "Thread count",
@@ -60,17 +78,114 @@ public abstract class AbstractTestOpsCommand implements Runnable {
     )
     protected Integer threadCount;
 
+    @CommandLine.Option(
+            names = {"--thread.adaptive"},
+            description = "Adapt request concurrency to server load",
+            defaultValue = "${env:THREAD_ADAPTIVE}"
+    )
+    protected boolean threadAdaptive;
+
+    @CommandLine.Option(
+            names = {"--thread.max"},
+            description = "Maximum request concurrency in adaptive mode",
+            defaultValue = "${env:THREAD_MAX}"
+    )
+    protected Integer threadMax;
+
+    @CommandLine.Option(
+            names = {"--page.concurrency"},
+            description = "Number of pages fetched in parallel",
+            defaultValue = "${env:PAGE_CONCURRENCY}"
+    )
+    protected Integer pageConcurrency;
+
+    @CommandLine.Option(
+            names = {"--page.latency"},
+            description = "Target response time of single page in milliseconds",
+            defaultValue = "${env:PAGE_LATENCY}"
+    )
+    protected Long pageLatency;
+
+    @CommandLine.Option(
+            names = {"--page.size.max"},
+            description = "Maximum number of items requested in single page",
+            defaultValue = "${env:PAGE_SIZE_MAX}"
+    )
+    protected Integer pageSizeMax;
+
+    @CommandLine.Option(
+            names = {"--scan.sharded"},
+            description = "Split large listings into id or date ranges scanned in parallel",
+            defaultValue = "${env:SCAN_SHARDED}"
+    )
+    protected boolean scanSharded;
+
+    @CommandLine.Option(
+            names = {"--transfer.budget"},
+            description = "Maximum size of attachments transferred at the same time in megabytes",
+            defaultValue = "${env:TRANSFER_BUDGET}"
+    )
+    protected Long transferBudget;
+
+    @CommandLine.Option(
+            names = {"--transfer.concurrency"},
+            description = "Number of threads transferring attachments",
+            defaultValue = "${env:TRANSFER_CONCURRENCY}"
+    )
+    protected Integer transferConcurrency;
+
+    @CommandLine.Option(
+            names = {"--retry.count"},
+            description = "Maximum attempts for failed requests",
+            defaultValue = "${env:RETRY_COUNT}"
+    )
+    protected Integer retryCount;
+
+    @CommandLine.Option(
+            names = {"--retry.budget"},
+            description = "Maximum share of retries in total requests",
+            defaultValue = "${env:RETRY_BUDGET}"
+    )
+    protected Double retryBudget;
+
+    @CommandLine.Option(
+            names = {"--executor"},
+            description = "Executor for parallel tasks: ${COMPLETION-CANDIDATES}",
+            defaultValue = "${env:EXECUTOR:-platform}"
+    )
+    protected ExecutionRuntime.Mode executorMode;
+
+    protected ConcurrencyLimitInterceptor limiter;
+
+    protected TransferScheduler transfers;
+
+    protected ExecutionRuntime runtime;
+
     public abstract void runUnsafe(final ServiceBuilder builder) throws Exception;
 
     @Override
     public void run() {
-        try {
-            final int threads = Optional.ofNullable(threadCount).orElse(10);
-            Dispatcher dispatcher = new Dispatcher(Executors.newFixedThreadPool(threads));
+        final int threads = getMaxThreadCount();
+        try (ExecutionRuntime executionRuntime = new ExecutionRuntime(
+                executorMode, threads, getTransferConcurrency()
+        )) {
+            runtime = executionRuntime;
+            transfers = new TransferScheduler(getTransferBudget());
+            final Dispatcher dispatcher = ExecutionRuntime.Mode.VIRTUAL.equals(executorMode)
+                    ? new Dispatcher(runtime.getExecutor())
+                    : new Dispatcher();
             dispatcher.setMaxRequests(threads);
             dispatcher.setMaxRequestsPerHost(threads);
             final ServiceBuilder builder = getAllureServiceBuilder()
-                    .withDispatcher(dispatcher);
+                    .withDispatcher(dispatcher)
+                    .retryPolicy(getRetryPolicy(), getRetryBudget());
+            if (threadAdaptive) {
+                limiter = new ConcurrencyLimitInterceptor(getTreadCount(), 1, threads);
+                builder.concurrencyLimit(limiter);
+            } else if (ExecutionRuntime.Mode.VIRTUAL.equals(executorMode)) {
+                limiter = new ConcurrencyLimitInterceptor(threads, threads, threads);
+                builder.concurrencyLimit(limiter);
+            }
             runUnsafe(builder);
         } catch (Exception e) {
             e.printStackTrace(System.out);
@@ -81,41 +196,130 @@ public abstract class AbstractTestOpsCommand implements Runnable {
         return Optional.ofNullable(threadCount).orElse(10);
     }
 
+    protected int getMaxThreadCount() {
+        if (threadAdaptive) {
+            return Math.max(getTreadCount(), Optional.ofNullable(threadMax).orElse(getTreadCount() * 4));
+        }
+        return getTreadCount();
+    }
+
+    protected int getTransferConcurrency() {
+        return Optional.ofNullable(transferConcurrency).orElse(getTreadCount());
+    }
+
+    protected long getTransferBudget() {
+        return Optional.ofNullable(transferBudget)
+                .map(megabytes -> megabytes * 1024 * 1024)
+                .orElse(TransferScheduler.DEFAULT_BUDGET_BYTES);
+    }
+
+    protected int getPageConcurrency() {
+        return Optional.ofNullable(pageConcurrency).orElse(getTreadCount());
+    }
+
+    protected PageSizeController getPageSize() {
+        return new PageSizeController(
+                PageSizeController.DEFAULT_INITIAL_SIZE,
+                Optional.ofNullable(pageSizeMax).orElse(PageSizeController.DEFAULT_MAX_SIZE),
+                Optional.ofNullable(pageLatency).orElse(PageSizeController.DEFAULT_TARGET_LATENCY_MILLIS),
+                PageSizeController.DEFAULT_MAX_BYTES
+        );
+    }
+
+    protected RetryPolicy getRetryPolicy() {
+        return new RetryPolicy(
+                Optional.ofNullable(retryCount).orElse(3),
+                500,
+                TimeUnit.SECONDS.toMillis(30)
+        );
+    }
+
+    protected RetryBudget getRetryBudget() {
+        return new RetryBudget(Optional.ofNullable(retryBudget).orElse(0.1), 100);
+    }
+
     protected ServiceBuilder getAllureServiceBuilder() {
         return new ServiceBuilder(allureEndpoint)
                 .insecure(allureInsecure)
+                .tokenCache(allureTokenCache)
                 .authBasic(allureUsername, allurePassword);
     }
 
     protected List<Long> getTestCases(final TestCaseService service,
                                       final Long projectId,
                                       final String filter) throws IOException {
-        final List<Long> testCases = new ArrayList<>();
-        Page<TestCase> current = new Page<TestCase>().setNumber(-1);
-        do {
-            current = executeRequest(
-                    service.findByRql(projectId, filter, current.getNumber() + 1, 100)
-            );
-            for (TestCase item : current.getContent()) {
-                testCases.add(item.getId());
-            }
-        } while (current.getNumber() < current.getTotalPages());
-        return testCases;
+        return getAll(
+                (rql, page, size, sort) -> service.findByRql(projectId, rql, false, page, size, sort),
+                filter, "id", TestCase::getId
+        ).stream()
+                .map(TestCase::getId)
+                .collect(Collectors.toList());
     }
 
     protected List<Long> getSharedSteps(final SharedStepService service,
                                         final Long projectId) throws IOException {
-        final List<Long> testCases = new ArrayList<>();
-        Page<SharedStep> current = new Page<SharedStep>().setNumber(-1);
-        do {
-            current = executeRequest(
-                    service.findAll(projectId, null, false, current.getNumber() + 1, 100)
-            );
-            for (SharedStep item : current.getContent()) {
-                testCases.add(item.getId());
-            }
-        } while (current.getNumber() < current.getTotalPages());
-        return testCases;
+        return getAll((page, size) -> service.findAll(projectId, null, false, page, size)).stream()
+                .map(SharedStep::getId)
+                .collect(Collectors.toList());
+    }
+
+    protected Iterable<Long> streamTestCases(final TestCaseService service,
+                                             final Long projectId,
+                                             final String filter) {
+        final PagedSource<TestCase> source = new PagedSource<>(
+                (page, size) -> service.findByRql(projectId, filter, page, size), getPageSize()
+        );
+        return () -> source.stream().map(TestCase::getId).iterator();
+    }
+
+    protected Iterable<Long> streamSharedSteps(final SharedStepService service,
+                                               final Long projectId) {
+        final PagedSource<SharedStep> source = new PagedSource<>(
+                (page, size) -> service.findAll(projectId, null, false, page, size), getPageSize()
+        );
+        return () -> source.stream().map(SharedStep::getId).iterator();
+    }
+
+    protected <T> List<T> getAll(final PageRequest<T> request) throws IOException {
+        return new Paginator<>(request, getPageSize(), getPageConcurrency()).fetchAll();
+    }
+
+    /**
+     * Fetches all items matching filter, in ranges of numeric field when sharded scan is enabled.
+     */
+    protected <T> List<T> getAll(final ShardedScanner.ShardRequest<T> request,
+                                 final String filter,
+                                 final String field,
+                                 final Function<T, Long> key) throws IOException {
+        if (scanSharded) {
+            return new ShardedScanner<>(request, filter, field, key, getPageSize(), getPageConcurrency()).fetchAll();
+        }
+        return getAll((page, size) -> request.call(filter, page, size, null));
+    }
+
+    protected <T> PagedSource<T> stream(final PageRequest<T> request) {
+        return new PagedSource<>(request, getPageSize());
+    }
+
+    protected CompletableFuture<List<Long>> getSharedStepsAsync(final SharedStepService service,
+                                                                final Long projectId) {
+        return getAllAsync((page, size) -> service.findAll(projectId, null, false, page, size))
+                .thenApply(items -> items.stream().map(SharedStep::getId).collect(Collectors.toList()));
+    }
+
+    protected <T> CompletableFuture<List<T>> getAllAsync(final PageRequest<T> request) {
+        return Paginator.fetchAllAsync(request, getPageSize());
+    }
+
+    protected static <T> CompletableFuture<T> executeRequestAsync(final Call<T> call) {
+        return CompletableFutureCallAdapterFactory.toFuture(call);
+    }
+
+    /**
+     * Waits for asynchronous requests, failure of the request is rethrown as is.
+     */
+    protected static <T> T await(final CompletableFuture<T> future) throws IOException {
+        return CompletableFutureCallAdapterFactory.await(future);
     }
 
     protected static <T> T executeRequest(final Call<T> call) throws IOException {
@@ -127,44 +331,50 @@ public abstract class AbstractTestOpsCommand implements Runnable {
     }
 
 
-    protected boolean invokeParallel(final String description,
-                                     final Collection<Long> ids,
-                                     final Consumer<Long> task) throws Exception {
+    protected <T> boolean invokeParallel(final String description,
+                                         final Iterable<T> items,
+                                         final Consumer<T> task) throws Exception {
         System.out.printf("Starting task '%s'\n", description);
 
         final Instant startTime = Instant.now();
-        final ExecutorService executor = Executors.newFixedThreadPool(getTreadCount());
-        final List<Callable<Boolean>> tasks = new ArrayList<>();
-        for (Long id : ids) {
-            tasks.add(() -> {
-                try {
-                    task.accept(id);
-                    return true;
-                } catch (Throwable e) {
-                    return false;
-                }
-            });
+        final int errorsCount = runtime.forEach(description, items, task::accept);
+        final Instant endTime = Instant.now();
+        System.out.printf(
+                "Finishing task '%s' (%s) with %s errors\n",
+                description,
+                Duration.between(startTime, endTime),
+                errorsCount
+        );
+        if (Objects.nonNull(limiter)) {
+            System.out.printf("Request concurrency for task '%s': %s\n", description, limiter);
         }
-        try {
-            final List<Future<Boolean>> results = executor.invokeAll(tasks);
-            int errorsCount = 0;
-            for (Future<Boolean> fr : results) {
-                boolean success = fr.get();
-                if (!success) {
-                    errorsCount++;
-                }
-            }
-            final Instant endTime = Instant.now();
+        System.out.printf("Attachment transfers for task '%s': %s\n", description, transfers);
+        return errorsCount == 0;
+    }
+
+    /**
+     * Starts pipeline over items and reports its stage statistics when it is finished.
+     *
+     * @return future completed with {@code true} when all items passed all stages
+     */
+    protected <S> CompletableFuture<Boolean> startPipeline(final Pipeline<S, ?> pipeline,
+                                                           final Iterable<S> items) {
+        final String description = pipeline.getDescription();
+        System.out.printf("Starting task '%s'\n", description);
+        return pipeline.start(items).thenApply(errorsCount -> {
             System.out.printf(
                     "Finishing task '%s' (%s) with %s errors\n",
                     description,
-                    Duration.between(startTime, endTime),
+                    pipeline.getDuration(),
                     errorsCount
             );
-        } finally {
-            executor.shutdown();
-        }
-        return true;
+            pipeline.getReport().forEach(line -> System.out.printf("Task '%s' %s\n", description, line));
+            if (Objects.nonNull(limiter)) {
+                System.out.printf("Request concurrency for task '%s': %s\n", description, limiter);
+            }
+            System.out.printf("Attachment transfers for task '%s': %s\n", description, transfers);
+            return errorsCount == 0;
+        });
     }
 
     @FunctionalInterface
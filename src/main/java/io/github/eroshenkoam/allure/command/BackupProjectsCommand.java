@@ -0,0 +1,145 @@
+package io.github.eroshenkoam.allure.command;
+
+import io.github.eroshenkoam.allure.client.ProjectService;
+import io.github.eroshenkoam.allure.client.ServiceBuilder;
+import io.github.eroshenkoam.allure.client.dto.Project;
+import io.github.eroshenkoam.allure.execution.FairScheduler;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backs up several projects in one run, every project into its own directory under backup path.
+ * <p>
+ * Projects share request and transfer concurrency of the run. Stage tasks of all projects are
+ * scheduled in round-robin order between projects, so large project does not delay small ones.
+ */
+@CommandLine.Command(
+        name = "backup-projects", mixinStandardHelpOptions = true,
+        description = "Backup test cases in several projects"
+)
+public class BackupProjectsCommand extends AbstractBackupCommand {
+
+    @CommandLine.Option(
+            names = {"--allure.project.id"},
+            description = "Allure TestOps project ids, all projects by default",
+            defaultValue = "${env:ALLURE_PROJECT_ID}",
+            split = ","
+    )
+    protected List<Long> allureProjectIds;
+
+    @CommandLine.Option(
+            names = {"--backup.project.concurrency"},
+            description = "Number of projects backed up at the same time",
+            defaultValue = "${env:BACKUP_PROJECT_CONCURRENCY}"
+    )
+    protected Integer projectConcurrency;
+
+    @Override
+    public void runUnsafe(final ServiceBuilder builder) throws Exception {
+        final List<Long> projectIds = new ArrayList<>();
+        if (Objects.nonNull(allureProjectIds) && !allureProjectIds.isEmpty()) {
+            projectIds.addAll(allureProjectIds);
+        } else {
+            projectIds.addAll(getAllProjects(builder.create(ProjectService.class)));
+        }
+        final Path backupDir = getBackupDir();
+        final int parallelProjects = Math.min(getProjectConcurrency(), Math.max(1, projectIds.size()));
+        System.out.printf(
+                "Backup %s projects into [%s], %s at the same time\n", projectIds.size(), backupDir, parallelProjects
+        );
+
+        final FairScheduler scheduler = new FairScheduler(runtime.getExecutor(), runtime.getConcurrency());
+        final FairScheduler transferScheduler = new FairScheduler(
+                runtime.getTransferExecutor(), runtime.getTransferConcurrency()
+        );
+        final AtomicInteger finished = new AtomicInteger();
+        final Set<Long> failed = new ConcurrentSkipListSet<>();
+        final Instant startTime = Instant.now();
+        final ExecutorService projectExecutor = Executors.newFixedThreadPool(parallelProjects);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (Long projectId : projectIds) {
+                futures.add(projectExecutor.submit(() -> {
+                    if (!backupProject(builder, projectId, backupDir, scheduler, transferScheduler)) {
+                        failed.add(projectId);
+                    }
+                    System.out.printf(
+                            "Backup progress: %s of %s projects, %s failed, requests %s, transfers %s\n",
+                            finished.incrementAndGet(), projectIds.size(), failed.size(),
+                            scheduler, transferScheduler
+                    );
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            projectExecutor.shutdown();
+        }
+        System.out.printf(
+                "Backup of %s projects finished (%s), failed projects: %s\n",
+                projectIds.size(), Duration.between(startTime, Instant.now()), failed
+        );
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException(String.format("Backup of projects %s failed", failed));
+        }
+    }
+
+    private boolean backupProject(final ServiceBuilder builder,
+                                  final Long projectId,
+                                  final Path backupDir,
+                                  final FairScheduler scheduler,
+                                  final FairScheduler transferScheduler) {
+        final String dirName = getProjectDirName(projectId);
+        final Instant startTime = Instant.now();
+        System.out.printf("Backup project [%s] into [%s]\n", projectId, backupDir.resolve(dirName));
+        boolean success;
+        try {
+            success = backupProject(
+                    builder, projectId, backupDir.resolve(dirName),
+                    Optional.ofNullable(backupBase).map(base -> base.resolve(dirName)).orElse(null),
+                    scheduler.lane(dirName), transferScheduler.lane(dirName)
+            );
+        } catch (Exception e) {
+            System.out.printf("Backup of project [%s] failed: %s\n", projectId, e);
+            success = false;
+        }
+        System.out.printf(
+                "Finished project [%s] (%s) %s\n",
+                projectId, Duration.between(startTime, Instant.now()), success ? "successfully" : "with errors"
+        );
+        return success;
+    }
+
+    private int getProjectConcurrency() {
+        return Optional.ofNullable(projectConcurrency).orElse(4);
+    }
+
+    private Set<Long> getAllProjects(final ProjectService service) throws IOException {
+        final Set<Long> result = new TreeSet<>();
+        for (Project item : getAll((page, size) -> service.getProjects("", page, size))) {
+            result.add(item.getId());
+        }
+        return result;
+    }
+
+    protected static String getProjectDirName(final Long projectId) {
+        return String.format("project-%s", projectId);
+    }
+
+}
@@ -7,11 +7,14 @@ import io.github.eroshenkoam.allure.model.TestCasesDto;
 import io.github.eroshenkoam.allure.util.FreemarkerUtil;
 import io.github.eroshenkoam.allure.util.PDFUtil;
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate;
+import io.github.eroshenkoam.allure.client.TestCaseAggregateLoader;
 import io.github.eroshenkoam.allure.client.TestCaseService;
 import io.github.eroshenkoam.allure.client.dto.*;
+import io.github.eroshenkoam.allure.client.transfer.TransferScheduler;
+import io.github.eroshenkoam.allure.client.transfer.Transfers;
 import okhttp3.ResponseBody;
 import picocli.CommandLine;
-import retrofit2.Response;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -53,9 +56,13 @@ public class ExportTestCasesCommand extends AbstractTestOpsCommand {
         final TestCaseService service = builder.create(TestCaseService.class);
         System.out.printf("Export testcases from project [%s] filter [%s]\n", allureProjectId, allureTestCaseFilter);
 
-        final List<TestCaseDto> testCases = getTestCases(service);
-        for (TestCaseDto testCase : testCases) {
+        final TestCaseAggregateLoader loader = new TestCaseAggregateLoader(builder, getPageSize());
+        final List<TestCaseDto> testCases = getTestCases(service, loader);
+        final boolean success = invokeParallel("download test case attachments", testCases, (testCase) -> {
             downloadTestCaseAttachments(service, testCase.getId());
+        });
+        if (!success) {
+            throw new IllegalStateException("Attachments of some test cases were not downloaded");
         }
 
         final TestCasesDto data = new TestCasesDto()
@@ -75,32 +82,30 @@ public class ExportTestCasesCommand extends AbstractTestOpsCommand {
         PDFUtil.saveToFile(htmlPath, pdfPath);
     }
 
-    private List<TestCaseDto> getTestCases(final TestCaseService service) throws IOException {
-        final List<TestCaseDto> testCases = new ArrayList<>();
-        Page<TestCase> current = new Page<TestCase>().setNumber(-1);
-        do {
-            current = executeRequest(service.findByRql(
-                    allureProjectId, allureTestCaseFilter, current.getNumber() + 1, 10
-            ));
-            for (TestCase item : current.getContent()) {
-                final TestCaseDto testCase = convertTestCase(item);
-                testCase.setSteps(getTestCaseSteps(service, testCase));
-                testCases.add(testCase);
-            }
-        } while (current.getNumber() < current.getTotalPages());
-        return testCases;
+    private List<TestCaseDto> getTestCases(final TestCaseService service,
+                                           final TestCaseAggregateLoader loader) throws Exception {
+        final List<TestCase> items = getAll(
+                (page, size) -> service.findByRql(allureProjectId, allureTestCaseFilter, page, size)
+        );
+        return runtime.map(items, (item) -> {
+            final TestCaseDto testCase = convertTestCase(item);
+            testCase.setSteps(getTestCaseSteps(loader, testCase));
+            return testCase;
+        });
     }
 
-    private List<TestCaseStepDto> getTestCaseSteps(final TestCaseService service,
+    private List<TestCaseStepDto> getTestCaseSteps(final TestCaseAggregateLoader loader,
                                                    final TestCaseDto testCase) throws IOException {
-        final Response<TestCaseScenario> automatedTestCaseScenario = service.getScenarioFromRun(testCase.getId()).execute();
-        final Response<TestCaseScenario> manualTestCaseScenario = service.getScenario(testCase.getId()).execute();
-        final Response<TestCaseScenario> TestCaseScenarioResponse = automatedTestCaseScenario.body() != null
-                && automatedTestCaseScenario.body().getSteps() != null
-                && automatedTestCaseScenario.body().getSteps().size() != 0
-                ? automatedTestCaseScenario : manualTestCaseScenario;
-        if (TestCaseScenarioResponse.isSuccessful()) {
-            return convertSteps(TestCaseScenarioResponse.body().getSteps());
+        final TestCaseAggregate aggregate = loader.load(
+                testCase.getId(), EnumSet.of(TestCaseAggregate.Part.STEPS, TestCaseAggregate.Part.STEPS_FROM_RUN)
+        );
+        final TestCaseScenario automatedTestCaseScenario = aggregate.getStepsFromRun();
+        final TestCaseScenario testCaseScenario = automatedTestCaseScenario != null
+                && automatedTestCaseScenario.getSteps() != null
+                && automatedTestCaseScenario.getSteps().size() != 0
+                ? automatedTestCaseScenario : aggregate.getSteps();
+        if (testCaseScenario != null) {
+            return convertSteps(testCaseScenario.getSteps());
         }
         return new ArrayList<>();
     }
@@ -113,16 +118,20 @@ public class ExportTestCasesCommand extends AbstractTestOpsCommand {
                 .resolve(testCaseId.toString());
         Files.createDirectories(baseTestCaseAttachmentsPath);
 
-        final Page<TestCaseAttachment> attachments = executeRequest(service.getAttachments(testCaseId, 0, 100));
-        final List<TestCaseAttachmentDto> TestCaseAttachments = convertTestCaseAttachments(attachments.getContent());
+        final List<TestCaseAttachment> attachments = getAll(
+                (page, size) -> service.getAttachments(testCaseId, page, size)
+        );
+        final List<TestCaseAttachmentDto> TestCaseAttachments = convertTestCaseAttachments(attachments);
         for (TestCaseAttachmentDto TestCaseAttachment : TestCaseAttachments) {
             System.out.printf(
                     "Download TestCaseAttachment [%s] for test case [%s]\n", TestCaseAttachment.getName(), testCaseId
             );
             final Path TestCaseAttachmentPath = baseTestCaseAttachmentsPath
                     .resolve(prepareTestCaseAttachmentName(TestCaseAttachment.getName()));
-            final ResponseBody content = executeRequest(service.getAttachmentContent(TestCaseAttachment.getId()));
-            Files.write(TestCaseAttachmentPath, content.bytes());
+            try (TransferScheduler.Permit permit = transfers.acquire(TestCaseAttachment.getContentLength())) {
+                final ResponseBody content = executeRequest(service.getAttachmentContent(TestCaseAttachment.getId()));
+                Transfers.download(content, TestCaseAttachmentPath);
+            }
         }
     }
 
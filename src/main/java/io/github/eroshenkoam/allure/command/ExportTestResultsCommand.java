@@ -4,7 +4,6 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
 import io.github.eroshenkoam.allure.client.TestResultService;
-import io.github.eroshenkoam.allure.client.dto.Page;
 import io.github.eroshenkoam.allure.client.dto.TestResultScenario;
 import io.github.eroshenkoam.allure.client.dto.TestResultStep;
 import io.qameta.allure.model.StepResult;
@@ -19,6 +18,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @CommandLine.Command(
         name = "export-testresults", mixinStandardHelpOptions = true,
@@ -54,41 +54,41 @@ public class ExportTestResultsCommand extends AbstractTestOpsCommand {
         final TestResultService service = builder.create(TestResultService.class);
         System.out.printf("Export results from project [%s] filter [%s]\n", allureProjectId, allureTestResultFilter);
 
-        final List<TestResult> testResults = getTestResults(service);
-        System.out.printf("Found [%s] results\n", testResults.size());
-
         Files.createDirectories(outputPath);
 
         final ObjectMapper mapper = new ObjectMapper()
                 .enable(JsonGenerator.Feature.IGNORE_UNKNOWN);
 
-        for (final TestResult result : testResults) {
+        final Iterable<io.github.eroshenkoam.allure.client.dto.TestResult> infos = scanSharded
+                ? getAll(
+                        (rql, page, size, sort) -> service.findByRql(allureProjectId, rql, page, size, sort),
+                        allureTestResultFilter, "createdDate",
+                        io.github.eroshenkoam.allure.client.dto.TestResult::getCreatedDate
+                )
+                : stream((page, size) -> service.findByRql(allureProjectId, allureTestResultFilter, page, size));
+        final AtomicInteger exported = new AtomicInteger();
+        final boolean success = invokeParallel("export test results", infos, (info) -> {
+            final TestResult result = getTestResult(service, info.getId());
             final Path testResultPath = outputPath
                     .resolve(String.format("%s-result.json", result.getUuid()));
             mapper.writeValue(testResultPath.toFile(), result);
+            exported.incrementAndGet();
+        });
+        System.out.printf("Exported [%s] results\n", exported.get());
+        if (!success) {
+            throw new IllegalStateException("Some test results were not exported");
         }
     }
 
-    private List<TestResult> getTestResults(final TestResultService service) throws IOException {
-        final List<TestResult> testCases = new ArrayList<>();
-        Page<io.github.eroshenkoam.allure.client.dto.TestResult> current =
-                new Page<io.github.eroshenkoam.allure.client.dto.TestResult>().setNumber(-1);
-        do {
-            current = executeRequest(
-                    service.findByRql(allureProjectId, allureTestResultFilter, current.getNumber() + 1, 10)
-            );
-            for (io.github.eroshenkoam.allure.client.dto.TestResult info : current.getContent()) {
-                final io.github.eroshenkoam.allure.client.dto.TestResult origin = executeRequest(service.findById(info.getId()));
-                final TestResult testResult = convertTestResult(origin);
+    private TestResult getTestResult(final TestResultService service, final Long id) throws IOException {
+        final io.github.eroshenkoam.allure.client.dto.TestResult origin = executeRequest(service.findById(id));
+        final TestResult testResult = convertTestResult(origin);
 
-                final TestResultScenario scenario = executeRequest(service.getScenario(info.getId()));
-                if (Objects.nonNull(scenario)) {
-                    testResult.setSteps(convertScenario(scenario.getSteps()));
-                }
-                testCases.add(testResult);
-            }
-        } while (current.getNumber() < current.getTotalPages());
-        return testCases;
+        final TestResultScenario scenario = executeRequest(service.getScenario(id));
+        if (Objects.nonNull(scenario)) {
+            testResult.setSteps(convertScenario(scenario.getSteps()));
+        }
+        return testResult;
     }
 
     private TestResult convertTestResult(final io.github.eroshenkoam.allure.client.dto.TestResult origin) {
@@ -3,7 +3,6 @@ package io.github.eroshenkoam.allure.command;
 import io.github.eroshenkoam.allure.client.LaunchService;
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
 import io.github.eroshenkoam.allure.client.dto.Launch;
-import io.github.eroshenkoam.allure.client.dto.Page;
 import org.joda.time.Period;
 import org.joda.time.format.PeriodFormatter;
 import org.joda.time.format.PeriodFormatterBuilder;
@@ -11,7 +10,6 @@ import picocli.CommandLine;
 import retrofit2.Response;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -60,19 +58,19 @@ public class LaunchCleanCommand extends AbstractTestOpsCommand {
         final List<Launch> launchesToDelete = getLaunches(service, launchQuery.toString());
         System.out.printf("Found [%s] launches by query [%s]\n", launchesToDelete.size(), launchQuery);
 
-        for (Launch launch : launchesToDelete) {
+        final boolean success = invokeParallel("delete launches", launchesToDelete, (launch) -> {
             executeRequest(service.delete(launch.getId()));
+        });
+        if (!success) {
+            throw new IllegalStateException("Some launches were not deleted");
         }
     }
 
     private List<Launch> getLaunches(final LaunchService service, final String launchQuery) throws IOException {
-        final List<Launch> launches = new ArrayList<>();
-        Page<Launch> current = new Page<Launch>().setNumber(-1);
-        do {
-            current = executeRequest(service.findAll(projectId, launchQuery, current.getNumber() + 1, 10));
-            launches.addAll(current.getContent());
-        } while (current.getNumber() < current.getTotalPages());
-        return launches;
+        return getAll(
+                (rql, page, size, sort) -> service.findAll(projectId, rql, page, size, sort),
+                launchQuery, "id", Launch::getId
+        );
     }
 
     private Long parseCreatedBefore(String time) {
@@ -56,8 +56,11 @@ public class MigrateExpectedResultsCommand extends AbstractTestOpsCommand {
         final TestCaseService service = builder.create(TestCaseService.class);
         final List<Long> testCaseIds = getTestCases(service, allureProjectId, allureTestCaseFilter);
         Files.createDirectories(backupPath);
-        for (Long testCaseId : testCaseIds) {
+        final boolean success = invokeParallel("migrate expected results", testCaseIds, (testCaseId) -> {
             migrateTestCaseScenario(service, testCaseId);
+        });
+        if (!success) {
+            throw new IllegalStateException("Expected results of some test cases were not migrated");
         }
     }
 
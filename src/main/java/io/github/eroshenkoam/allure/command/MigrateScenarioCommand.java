@@ -4,7 +4,6 @@ import io.github.eroshenkoam.allure.client.ProjectService;
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
 import io.github.eroshenkoam.allure.client.TestCaseScenarioService;
 import io.github.eroshenkoam.allure.client.TestCaseService;
-import io.github.eroshenkoam.allure.client.dto.Page;
 import io.github.eroshenkoam.allure.client.dto.Project;
 import picocli.CommandLine;
 
@@ -49,22 +48,21 @@ public class MigrateScenarioCommand extends AbstractTestOpsCommand {
     private void migrateProject(final TestCaseService tcService,
                                 final TestCaseScenarioService tcScenarioService,
                                 final Long projectId) throws Exception {
-        final List<Long> testCaseIds = getTestCases(tcService, projectId, "true");
-        invokeParallel("migrate project scenario", testCaseIds, (id) -> {
+        final Iterable<Long> testCaseIds = streamTestCases(tcService, projectId, "true");
+        final boolean success = invokeParallel("migrate project scenario", testCaseIds, (id) -> {
             System.out.printf("Migrating test case with id %s\n", id);
             executeRequest(tcScenarioService.migrateScenario(id));
         });
+        if (!success) {
+            throw new IllegalStateException(String.format("Scenarios of project [%s] were not migrated", projectId));
+        }
     }
 
     private Map<Long, String> getAllProjects(final ProjectService service) throws IOException {
         final Map<Long, String> result = new HashMap<>();
-        Page<Project> current = new Page<Project>().setNumber(-1);
-        do {
-            current = executeRequest(service.getProjects("", current.getNumber() + 1, 100));
-            for (Project item : current.getContent()) {
-                result.put(item.getId(), item.getName());
-            }
-        } while (current.getNumber() < current.getTotalPages());
+        for (Project item : getAll((page, size) -> service.getProjects("", page, size))) {
+            result.put(item.getId(), item.getName());
+        }
         return result;
     }
 
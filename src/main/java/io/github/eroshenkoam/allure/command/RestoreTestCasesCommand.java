@@ -1,27 +1,52 @@
 package io.github.eroshenkoam.allure.command;
 
+import io.github.eroshenkoam.allure.backup.BackupChecksums;
+import io.github.eroshenkoam.allure.backup.BackupStorage;
+import io.github.eroshenkoam.allure.backup.TestCaseFingerprint;
+import io.github.eroshenkoam.allure.backup.TestCaseFingerprint.Section;
+import io.github.eroshenkoam.allure.client.ScenarioConverter;
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
+import io.github.eroshenkoam.allure.client.SharedStepScenarioService;
+import io.github.eroshenkoam.allure.client.SharedStepService;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate.Part;
+import io.github.eroshenkoam.allure.client.TestCaseAggregateLoader;
 import io.github.eroshenkoam.allure.client.TestCaseScenarioService;
 import io.github.eroshenkoam.allure.client.TestCaseService;
-import io.github.eroshenkoam.allure.client.dto.Page;
 import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
 import io.github.eroshenkoam.allure.client.dto.ScenarioStep;
-import io.github.eroshenkoam.allure.client.dto.ScenarioStepCreate;
-import io.github.eroshenkoam.allure.client.dto.ScenarioStepResponse;
+import io.github.eroshenkoam.allure.client.dto.SharedStepAttachment;
+import io.github.eroshenkoam.allure.client.dto.SharedStepCreate;
 import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
 import io.github.eroshenkoam.allure.client.dto.TestCasePatch;
-import okhttp3.MediaType;
-import okhttp3.MultipartBody;
-import okhttp3.RequestBody;
+import io.github.eroshenkoam.allure.client.transfer.TransferScheduler;
+import io.github.eroshenkoam.allure.execution.Pipeline;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import okhttp3.ResponseBody;
 import picocli.CommandLine;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @CommandLine.Command(
         name = "restore-testcases", mixinStandardHelpOptions = true,
@@ -29,122 +54,352 @@ import java.util.Objects;
 )
 public class RestoreTestCasesCommand extends AbstractBackupRestoreCommand {
 
+    @CommandLine.Option(
+            names = {"--allure.project.id"},
+            description = "Allure TestOps project id",
+            defaultValue = "${env:ALLURE_PROJECT_ID}",
+            required = true
+    )
+    protected Long allureProjectId;
+
+    private static final Pattern SHARED_STEP_ENTRY = Pattern.compile("ss-(\\d+)(/.*)?");
+
+    @CommandLine.Option(
+            names = {"--restore.force"},
+            description = "Restore every test case in full, even if it matches the backup",
+            defaultValue = "${env:RESTORE_FORCE}"
+    )
+    protected boolean restoreForce;
+
+    @CommandLine.Option(
+            names = {"--restore.compare.content"},
+            description = "Compare attachment contents with the backup, not only names and sizes",
+            defaultValue = "${env:RESTORE_COMPARE_CONTENT}"
+    )
+    protected boolean restoreCompareContent;
+
     @Override
     public void runUnsafe(ServiceBuilder builder) throws Exception {
 
         final TestCaseService tcService = builder.create(TestCaseService.class);
         final TestCaseScenarioService tcScenarioService = builder.create(TestCaseScenarioService.class);
-        final List<Long> testCasesIds = getTestCases(tcService, allureProjectId, "true");
+        final TestCaseAggregateLoader loader = new TestCaseAggregateLoader(builder, getPageSize());
+        final Iterable<Long> testCasesIds = streamTestCases(tcService, allureProjectId, "true");
+        final int concurrency = runtime.getConcurrency();
+        final AtomicLong unchanged = new AtomicLong();
+        try (BackupStorage storage = openBackupStorage()) {
+            final Map<Long, Long> sharedStepIds = restoreSharedSteps(builder, storage);
+            final Pipeline<Long, TestCaseRestore> testCases = runtime.<Long>pipeline("restore test cases")
+                    .stage("read", concurrency, (testCaseId) -> {
+                        final TestCaseBackup backup = readTestCase(storage, testCaseId);
+                        updateScenarioSharedSteps(backup.getScenario(), sharedStepIds);
+                        return backup;
+                    })
+                    .stage("compare", concurrency, (backup) -> {
+                        final TestCaseRestore restore = compareTestCase(loader, tcService, storage, backup);
+                        if (restore.getChanges().isEmpty()) {
+                            System.out.printf("Test case with id '%s' is up to date\n", backup.getId());
+                            unchanged.incrementAndGet();
+                            return null;
+                        }
+                        return restore;
+                    })
+                    .stage("metadata", concurrency, (restore) -> restoreTestCaseMetadata(tcService, restore))
+                    .stage("attachments", runtime.getTransferConcurrency(), runtime.getTransferExecutor(),
+                            (restore) -> restoreTestCaseAttachments(tcScenarioService, storage, restore))
+                    .stage("scenario", concurrency, (restore) -> {
+                        if (restore.getChanges().contains(Section.SCENARIO)) {
+                            final TestCaseBackup backup = restore.getBackup();
+                            updateTestCaseScenario(tcScenarioService, backup.getScenario(), backup.getId());
+                        }
+                        return restore;
+                    });
+            final boolean success = startPipeline(testCases, testCasesIds).join();
+            System.out.printf("Test cases that are up to date and were not restored: %s\n", unchanged.get());
+            if (!success) {
+                throw new IllegalStateException("Some test cases were not restored");
+            }
+        }
+    }
 
-        for (final Long testCaseId : testCasesIds) {
-            restoreTestCase(tcService, tcScenarioService, testCaseId);
+    /**
+     * Restores all backed up shared steps before test cases. Shared steps that no longer exist in the project
+     * are created again. Fails when any shared step is not restored, as test cases would refer to it.
+     *
+     * @return ids of shared steps in the project by their ids in the backup
+     */
+    private Map<Long, Long> restoreSharedSteps(final ServiceBuilder builder,
+                                               final BackupStorage storage) throws IOException {
+        final SharedStepService ssService = builder.create(SharedStepService.class);
+        final SharedStepScenarioService ssScenarioService = builder.create(SharedStepScenarioService.class);
+        final CompletableFuture<List<Long>> liveSharedSteps = getSharedStepsAsync(ssService, allureProjectId);
+        final Set<Long> backupIds = getSharedStepIds(storage);
+        final Set<Long> liveIds = new HashSet<>(await(liveSharedSteps));
+        final Map<Long, Long> sharedStepIds = new ConcurrentHashMap<>();
+        final int concurrency = runtime.getConcurrency();
+        final Pipeline<Long, SharedStepBackup> sharedSteps = runtime.<Long>pipeline("restore shared steps")
+                .stage("read", concurrency, (sharedStepId) -> readSharedStep(storage, sharedStepId))
+                .stage("metadata", concurrency, (backup) -> {
+                    sharedStepIds.put(backup.getId(), restoreSharedStepMetadata(ssService, liveIds, backup));
+                    return backup;
+                })
+                .stage("attachments", runtime.getTransferConcurrency(), runtime.getTransferExecutor(),
+                        (backup) -> restoreSharedStepAttachments(
+                                ssScenarioService, storage, backup, sharedStepIds.get(backup.getId())
+                        ))
+                .stage("scenario", concurrency, (backup) -> {
+                    if (Objects.nonNull(backup.getScenario())) {
+                        executeRequest(ssScenarioService.setScenario(
+                                sharedStepIds.get(backup.getId()),
+                                ScenarioConverter.toSharedStepScenario(backup.getScenario())
+                        ));
+                    }
+                    return backup;
+                });
+        if (!startPipeline(sharedSteps, backupIds).join()) {
+            throw new IllegalStateException("Some shared steps were not restored, test cases are not restored");
         }
+        return sharedStepIds;
     }
 
-    private void restoreTestCase(final TestCaseService tcService,
-                                 final TestCaseScenarioService tcScenarioService,
-                                 final Long testCaseId) throws IOException {
-        System.out.printf("Restore test case with id '%s'\n", testCaseId);
+    private SharedStepBackup readSharedStep(final BackupStorage storage,
+                                            final Long sharedStepId) throws IOException {
+        System.out.printf("Restore shared step with id '%s'\n", sharedStepId);
+        try (InputStream input = storage.open(getSharedStepEntry(sharedStepId))) {
+            return MAPPER.readValue(input, SharedStepBackup.class).setId(sharedStepId);
+        }
+    }
+
+    /**
+     * Updates shared step that still exists in the project or creates it again.
+     *
+     * @return id of shared step in the project
+     */
+    private Long restoreSharedStepMetadata(final SharedStepService ssService,
+                                           final Set<Long> liveIds,
+                                           final SharedStepBackup backup) throws IOException {
+        if (liveIds.contains(backup.getId())) {
+            executeRequest(ssService.updateStep(backup.getId(), backup.getPatch()));
+            return backup.getId();
+        }
+        final SharedStepCreate request = new SharedStepCreate()
+                .setProjectId(allureProjectId)
+                .setName(backup.getPatch().getName());
+        final Long sharedStepId = executeRequest(ssService.createStep(request)).getId();
+        System.out.printf("Shared step with id '%s' is created again with id '%s'\n", backup.getId(), sharedStepId);
+        return sharedStepId;
+    }
+
+    private SharedStepBackup restoreSharedStepAttachments(final SharedStepScenarioService ssScenarioService,
+                                                          final BackupStorage storage,
+                                                          final SharedStepBackup backup,
+                                                          final Long sharedStepId) throws IOException {
+        final List<SharedStepAttachment> liveAttachments = getAll(
+                (page, size) -> ssScenarioService.getAttachments(sharedStepId, page, size)
+        );
+        await(CompletableFuture.allOf(liveAttachments.stream()
+                .map(attachment -> ssScenarioService.deleteAttachment(attachment.getId()))
+                .toArray(CompletableFuture[]::new)));
+        final List<AttachmentUpload> uploads = Optional.ofNullable(backup.getAttachments()).orElse(List.of())
+                .stream()
+                .map(attachment -> new AttachmentUpload()
+                        .setId(attachment.getId())
+                        .setName(attachment.getName())
+                        .setContentType(attachment.getContentType())
+                        .setEntry(getSharedStepAttachmentEntry(backup.getId(), attachment.getId())))
+                .collect(Collectors.toList());
+        final Map<Long, Long> context = uploadAttachments(storage, uploads, (parts) -> executeRequest(
+                ssScenarioService.createAttachment(sharedStepId, parts)
+        ).stream().map(CreatedAttachment::of).collect(Collectors.toList()));
+        updateScenarioAttachments(backup.getScenario(), context);
+        return backup;
+    }
 
-        final Path backupTestCaseFile = getBackupTestCaseFile(testCaseId);
-        final TestCaseBackup backup = MAPPER.readValue(backupTestCaseFile.toFile(), TestCaseBackup.class);
+    private static Set<Long> getSharedStepIds(final BackupStorage storage) throws IOException {
+        final Set<Long> ids = new TreeSet<>();
+        for (String name : storage.list("")) {
+            final Matcher matcher = SHARED_STEP_ENTRY.matcher(name);
+            if (matcher.matches() && storage.exists(getSharedStepEntry(Long.valueOf(matcher.group(1))))) {
+                ids.add(Long.valueOf(matcher.group(1)));
+            }
+        }
+        return ids;
+    }
 
+    private TestCaseBackup readTestCase(final BackupStorage storage, final Long testCaseId) throws IOException {
+        System.out.printf("Restore test case with id '%s'\n", testCaseId);
+        final TestCaseBackup backup;
+        try (InputStream input = storage.open(getTestCaseEntry(testCaseId))) {
+            backup = MAPPER.readValue(input, TestCaseBackup.class).setId(testCaseId);
+        }
         final TestCasePatch patch = backup.getPatch();
         if (Objects.isNull(patch.getFullName())) {
             patch.setFullName(patch.getName());
         }
-        executeRequest(tcService.update(testCaseId, patch));
-        executeRequest(tcService.setIssues(testCaseId, backup.getIssues()));
+        return backup;
+    }
+
+    /**
+     * Compares fingerprints of live test case and its backup and matches live attachments to backed up ones.
+     */
+    private TestCaseRestore compareTestCase(final TestCaseAggregateLoader loader,
+                                            final TestCaseService tcService,
+                                            final BackupStorage storage,
+                                            final TestCaseBackup backup) throws IOException {
+        final List<TestCaseAttachment> backupAttachments = Optional.ofNullable(backup.getAttachments())
+                .orElse(List.of());
+        if (restoreForce) {
+            return new TestCaseRestore()
+                    .setBackup(backup)
+                    .setChanges(EnumSet.allOf(Section.class))
+                    .setStaleAttachments(getAll((page, size) -> tcService.getAttachments(backup.getId(), page, size)))
+                    .setMissingAttachments(backupAttachments)
+                    .setAttachmentIds(new HashMap<>());
+        }
+        final TestCaseAggregate live = loader.load(backup.getId(), EnumSet.of(
+                Part.TEST_CASE, Part.MEMBERS, Part.CUSTOM_FIELDS, Part.ISSUES, Part.ATTACHMENTS, Part.SCENARIO
+        ));
+        final List<TestCaseAttachment> liveAttachments = Optional.ofNullable(live.getAttachments())
+                .orElse(List.of());
+        final Map<Long, String> backupKeys = new HashMap<>();
+        for (TestCaseAttachment attachment : backupAttachments) {
+            final String sha256 = restoreCompareContent ? getBackupAttachmentHash(storage, backup, attachment) : null;
+            backupKeys.put(attachment.getId(), TestCaseFingerprint.getAttachmentKey(attachment, sha256));
+        }
+        final Map<Long, String> liveKeys = new HashMap<>();
+        for (TestCaseAttachment attachment : liveAttachments) {
+            final String sha256 = restoreCompareContent ? getLiveAttachmentHash(tcService, attachment) : null;
+            liveKeys.put(attachment.getId(), TestCaseFingerprint.getAttachmentKey(attachment, sha256));
+        }
+
+        final Map<String, Deque<Long>> liveIdsByKey = new HashMap<>();
+        for (TestCaseAttachment attachment : liveAttachments) {
+            liveIdsByKey.computeIfAbsent(liveKeys.get(attachment.getId()), key -> new ArrayDeque<>())
+                    .add(attachment.getId());
+        }
+        final Map<Long, Long> attachmentIds = new HashMap<>();
+        final List<TestCaseAttachment> missingAttachments = new ArrayList<>();
+        for (TestCaseAttachment attachment : backupAttachments) {
+            final Deque<Long> liveIds = liveIdsByKey.get(backupKeys.get(attachment.getId()));
+            if (Objects.isNull(liveIds) || liveIds.isEmpty()) {
+                missingAttachments.add(attachment);
+            } else {
+                attachmentIds.put(attachment.getId(), liveIds.poll());
+            }
+        }
+        final List<TestCaseAttachment> staleAttachments = liveAttachments.stream()
+                .filter(attachment -> !attachmentIds.containsValue(attachment.getId()))
+                .collect(Collectors.toList());
 
-        final Map<Long, Long> tcAttachmentContext = restoreTestCaseAttachments(tcScenarioService, backup);
-        updateScenarioAttachments(backup.getScenario(), tcAttachmentContext);
-        updateTestCaseScenario(tcScenarioService, backup.getScenario(), testCaseId);
+        final TestCasePatch livePatch = getTestCasePatch(live);
+        if (Objects.isNull(livePatch.getFullName())) {
+            livePatch.setFullName(livePatch.getName());
+        }
+        final TestCaseFingerprint expected = TestCaseFingerprint.of(
+                backup.getPatch(), backup.getIssues(), backup.getScenario(), backupKeys
+        );
+        final TestCaseFingerprint actual = TestCaseFingerprint.of(
+                livePatch, live.getIssues(), live.getScenario(), liveKeys
+        );
+        return new TestCaseRestore()
+                .setBackup(backup)
+                .setChanges(expected.diff(actual))
+                .setStaleAttachments(staleAttachments)
+                .setMissingAttachments(missingAttachments)
+                .setAttachmentIds(attachmentIds);
+    }
+
+    private static String getBackupAttachmentHash(final BackupStorage storage,
+                                                  final TestCaseBackup backup,
+                                                  final TestCaseAttachment attachment) throws IOException {
+        final String name = getTestCaseAttachmentEntry(backup.getId(), attachment.getId());
+        final Optional<Path> file = storage.getFile(name);
+        if (file.isPresent()) {
+            return BackupChecksums.compute(file.get()).getSha256();
+        }
+        try (InputStream input = storage.open(name)) {
+            return BackupChecksums.compute(input).getSha256();
+        }
+    }
+
+    private String getLiveAttachmentHash(final TestCaseService tcService,
+                                         final TestCaseAttachment attachment) throws IOException {
+        try (TransferScheduler.Permit permit = transfers.acquire(attachment.getContentLength());
+             ResponseBody content = executeRequest(tcService.getAttachmentContent(attachment.getId()))) {
+            return BackupChecksums.compute(content.byteStream()).getSha256();
+        }
+    }
+
+    /**
+     * Restores changed test case fields and issues, both requests are sent at the same time.
+     */
+    private TestCaseRestore restoreTestCaseMetadata(final TestCaseService tcService,
+                                                    final TestCaseRestore restore) throws IOException {
+        final TestCaseBackup backup = restore.getBackup();
+        final List<CompletableFuture<?>> requests = new ArrayList<>();
+        if (restore.getChanges().contains(Section.METADATA)) {
+            requests.add(executeRequestAsync(tcService.update(backup.getId(), backup.getPatch())));
+        }
+        if (restore.getChanges().contains(Section.ISSUES)) {
+            requests.add(executeRequestAsync(tcService.setIssues(backup.getId(), backup.getIssues())));
+        }
+        await(CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])));
+        return restore;
     }
 
+    /**
+     * Replaces scenario of test case with the backed up one in single request.
+     */
     private void updateTestCaseScenario(final TestCaseScenarioService tcScenarioService,
                                         final ScenarioNormalized scenario,
                                         final Long testCaseId) throws IOException {
-        executeRequest(tcScenarioService.deleteScenario(testCaseId));
-        final ScenarioStep root = scenario.getRoot();
-        if (Objects.nonNull(root)) {
-            createTestCaseScenarioSteps(tcScenarioService, scenario, root.getChildren(), null, testCaseId);
-        }
-    }
-
-    private void createTestCaseScenarioSteps(final TestCaseScenarioService tcScenarioService,
-                                             final ScenarioNormalized scenario,
-                                             final List<Long> stepIds,
-                                             final Long parentId,
-                                             final Long testCaseId) throws IOException {
-        for (Long id : stepIds) {
-            final ScenarioStep stepBackup = scenario.getScenarioSteps().get(id);
-            if (Objects.nonNull(stepBackup.getAttachmentId())) {
-                final ScenarioStepCreate createRequest = new ScenarioStepCreate()
-                        .setAttachmentId(stepBackup.getAttachmentId())
-                        .setParentId(parentId)
-                        .setTestCaseId(testCaseId);
-                executeRequest(tcScenarioService.createStep(createRequest, null, null));
-            }
-            if (Objects.nonNull(stepBackup.getBody())) {
-                final ScenarioStepCreate createRequest = new ScenarioStepCreate()
-                        .setBody(stepBackup.getBody())
-                        .setExpectedResult(stepBackup.getExpectedResult())
-                        .setParentId(parentId)
-                        .setTestCaseId(testCaseId);
-                ScenarioStepResponse createdStep;
-                if (Objects.isNull(stepBackup.getExpectedResultId())) {
-                    createdStep = executeRequest(tcScenarioService.createStep(createRequest, null, null));
-                } else {
-                    createdStep = executeRequest(tcScenarioService.createStep(createRequest, null, null, true));
-                    final Long expectedResultId = createdStep.getScenario().getScenarioSteps()
-                            .get(createdStep.getCreatedStepId()).getExpectedResultId();
-                    final List<Long> children = scenario.getScenarioSteps()
-                            .get(stepBackup.getExpectedResultId())
-                            .getChildren();
-                    createTestCaseScenarioSteps(
-                            tcScenarioService, scenario, children, expectedResultId, testCaseId
-                    );
-                }
-                final List<Long> children = stepBackup.getChildren();
-                if (Objects.nonNull(children)) {
-                    createTestCaseScenarioSteps(
-                            tcScenarioService, scenario, children, createdStep.getCreatedStepId(), testCaseId
-                    );
-                }
-            }
-        }
+        executeRequest(tcScenarioService.setScenario(testCaseId, ScenarioConverter.toScenarioV2(scenario)));
     }
 
-    private Map<Long, Long> restoreTestCaseAttachments(final TestCaseScenarioService tcScenarioService,
-                                                       final TestCaseBackup backup) throws IOException {
-        final List<TestCaseAttachment> backupAttachments = backup.getAttachments();
-        final Page<TestCaseAttachment> testCaseAttachments = executeRequest(
-                tcScenarioService.getAttachments(backup.getId(), 0, 1000)
-        );
-        for (TestCaseAttachment attachment : testCaseAttachments.getContent()) {
-            executeRequest(tcScenarioService.deleteAttachment(attachment.getId()));
+    /**
+     * Deletes live attachments that are not in the backup and uploads backed up attachments that are missing,
+     * then points scenario of the backup to ids of live attachments.
+     */
+    private TestCaseRestore restoreTestCaseAttachments(final TestCaseScenarioService tcScenarioService,
+                                                       final BackupStorage storage,
+                                                       final TestCaseRestore restore) throws IOException {
+        final TestCaseBackup backup = restore.getBackup();
+        await(CompletableFuture.allOf(restore.getStaleAttachments().stream()
+                .map(attachment -> tcScenarioService.deleteAttachment(attachment.getId()))
+                .toArray(CompletableFuture[]::new)));
+        final List<AttachmentUpload> uploads = restore.getMissingAttachments().stream()
+                .map(attachment -> new AttachmentUpload()
+                        .setId(attachment.getId())
+                        .setName(attachment.getName())
+                        .setContentType(attachment.getContentType())
+                        .setEntry(getTestCaseAttachmentEntry(backup.getId(), attachment.getId())))
+                .collect(Collectors.toList());
+        final Map<Long, Long> context = restore.getAttachmentIds();
+        context.putAll(uploadAttachments(storage, uploads, (parts) -> executeRequest(
+                tcScenarioService.createAttachment(backup.getId(), parts)
+        ).stream().map(CreatedAttachment::of).collect(Collectors.toList())));
+        updateScenarioAttachments(backup.getScenario(), context);
+        return restore;
+    }
+
+    /**
+     * Points shared step references of scenario to ids of restored shared steps.
+     */
+    private void updateScenarioSharedSteps(final ScenarioNormalized scenario,
+                                           final Map<Long, Long> sharedStepIds) {
+        if (Objects.isNull(scenario) || Objects.isNull(scenario.getScenarioSteps())) {
+            return;
+        }
+        for (final ScenarioStep step : scenario.getScenarioSteps().values()) {
+            if (Objects.nonNull(step.getSharedStepId())) {
+                step.setSharedStepId(sharedStepIds.getOrDefault(step.getSharedStepId(), step.getSharedStepId()));
+            }
         }
-        final Map<Long, Long> context = new HashMap<>();
-        for (TestCaseAttachment attachment : backupAttachments) {
-            final Path attachmentFile = getBackupTestCaseAttachmentFile(backup.getId(), attachment.getId());
-            final RequestBody requestBody = RequestBody.create(
-                    MediaType.parse(attachment.getContentType()),
-                    Files.readAllBytes(attachmentFile)
-            );
-            final MultipartBody.Part attachmentPart = MultipartBody.Part
-                    .createFormData("file", attachment.getName(), requestBody);
-            final List<TestCaseAttachment> createdAttachments = executeRequest(
-                    tcScenarioService.createAttachment(backup.getId(), List.of(attachmentPart))
-            );
-            final Long newId = createdAttachments.get(0).getId();
-            context.put(attachment.getId(), newId);
-        }
-        return context;
     }
 
     private void updateScenarioAttachments(final ScenarioNormalized scenario,
                                            final Map<Long, Long> context) {
-        if (Objects.isNull(scenario.getScenarioSteps())) {
+        if (Objects.isNull(scenario) || Objects.isNull(scenario.getScenarioSteps())) {
             return;
         }
         for (final ScenarioStep step : scenario.getScenarioSteps().values()) {
@@ -154,4 +409,28 @@ public class RestoreTestCasesCommand extends AbstractBackupRestoreCommand {
         }
     }
 
+    @Data
+    @Accessors(chain = true)
+    private static class TestCaseRestore {
+
+        private TestCaseBackup backup;
+        private Set<Section> changes;
+
+        /**
+         * Live attachments that are not in the backup.
+         */
+        private List<TestCaseAttachment> staleAttachments;
+
+        /**
+         * Backed up attachments that are not in the live test case.
+         */
+        private List<TestCaseAttachment> missingAttachments;
+
+        /**
+         * Ids of live attachments by ids of backed up attachments.
+         */
+        private Map<Long, Long> attachmentIds;
+
+    }
+
 }
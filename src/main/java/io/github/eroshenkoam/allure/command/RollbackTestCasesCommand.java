@@ -1,7 +1,8 @@
 package io.github.eroshenkoam.allure.command;
 
 import io.github.eroshenkoam.allure.client.ServiceBuilder;
-import io.github.eroshenkoam.allure.client.TestCaseAuditService;
+import io.github.eroshenkoam.allure.client.TestCaseAggregate;
+import io.github.eroshenkoam.allure.client.TestCaseAggregateLoader;
 import io.github.eroshenkoam.allure.client.TestCaseService;
 import io.github.eroshenkoam.allure.client.audit.TestCaseAssociationDiff;
 import io.github.eroshenkoam.allure.client.audit.TestCaseDiff;
@@ -18,6 +19,7 @@ import org.joda.time.format.DateTimeFormatter;
 import picocli.CommandLine;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -68,8 +70,9 @@ public class RollbackTestCasesCommand extends AbstractTestOpsCommand {
         System.out.printf("Rollback testcases from project [%s] filter [%s]\n", allureProjectId, allureTestCaseFilter);
 
         final List<Long> ids = getTestCases(service, allureProjectId, allureTestCaseFilter);
-        for (Long id : ids) {
-            rollBackTestCase(builder, id);
+        final boolean success = invokeParallel("rollback test cases", ids, (id) -> rollBackTestCase(builder, id));
+        if (!success) {
+            throw new IllegalStateException("Some test cases were not rolled back");
         }
     }
 
@@ -77,7 +80,7 @@ public class RollbackTestCasesCommand extends AbstractTestOpsCommand {
         final DateTimeFormatter dateFormat = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss");
         final DateTime dateTime = dateFormat.parseDateTime(allureAuditAfter);
 
-        final TestCaseAuditService service = builder.create(TestCaseAuditService.class);
+        final TestCaseAggregateLoader loader = new TestCaseAggregateLoader(builder, getPageSize());
 
         final List<AuditAction> actions = Arrays.asList(
                 new RollbackTestCaseDataAction(),
@@ -87,8 +90,9 @@ public class RollbackTestCasesCommand extends AbstractTestOpsCommand {
                 new RollbackTagsInsertAction()
         );
 
-        final List<TestCaseAuditEntry> auditPages = service.getTestCaseAudit(testCaseId, 0, 50)
-                .execute().body().getContent().stream()
+        final List<TestCaseAuditEntry> auditPages = loader
+                .load(testCaseId, EnumSet.of(TestCaseAggregate.Part.AUDIT))
+                .getAudit().stream()
                 .filter(entry -> entry.getTimestamp() > dateTime.getMillis())
                 .collect(Collectors.toList());
         for (TestCaseAuditEntry entry : auditPages) {
@@ -0,0 +1,174 @@
+package io.github.eroshenkoam.allure.command;
+
+import io.github.eroshenkoam.allure.backup.BackupChecksums;
+import io.github.eroshenkoam.allure.backup.BackupChecksums.Checksum;
+import io.github.eroshenkoam.allure.backup.BackupStorage;
+import io.github.eroshenkoam.allure.backup.BlobStore;
+import io.github.eroshenkoam.allure.client.ServiceBuilder;
+import io.github.eroshenkoam.allure.client.TestCaseService;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@CommandLine.Command(
+        name = "verify-backup", mixinStandardHelpOptions = true,
+        description = "Verify backup of test cases against its checksums"
+)
+public class VerifyBackupCommand extends AbstractBackupRestoreCommand {
+
+    private static final String TEST_CASE_PREFIX = "tc-";
+
+    @CommandLine.Option(
+            names = {"--allure.project.id"},
+            description = "Allure TestOps project id",
+            defaultValue = "${env:ALLURE_PROJECT_ID}",
+            required = true
+    )
+    protected Long allureProjectId;
+
+    @CommandLine.Option(
+            names = {"--verify.live"},
+            description = "Compare backed up test cases and attachments with Allure TestOps",
+            defaultValue = "${env:VERIFY_LIVE}"
+    )
+    protected boolean verifyLive;
+
+    @Override
+    public void runUnsafe(final ServiceBuilder builder) throws Exception {
+        final Path backupDir = getBackupDir();
+        final BackupChecksums checksums = BackupChecksums.read(backupDir);
+        final Map<String, Checksum> entries = checksums.getEntries();
+        if (entries.isEmpty()) {
+            throw new IllegalStateException(
+                    String.format("Backup [%s] has no %s", backupDir, BackupChecksums.FILE_NAME)
+            );
+        }
+        System.out.printf("Verify backup [%s] with %s entries\n", backupDir, entries.size());
+
+        final AtomicLong bytes = new AtomicLong();
+        boolean valid;
+        try (BackupStorage storage = openBackupStorage()) {
+            valid = invokeParallel("verify backup entries", entries.keySet(), (name) -> {
+                verifyEntry(storage, name, entries.get(name));
+                bytes.addAndGet(entries.get(name).getSize());
+            });
+            final Set<String> blobs = getBlobHashes(storage, entries.keySet());
+            valid &= invokeParallel("verify backup blobs", blobs, (hash) -> {
+                verifyBlob(backupDir, hash);
+            });
+            if (verifyLive) {
+                valid &= verifyLive(builder, storage, getTestCaseIds(entries.keySet()));
+            }
+        }
+        System.out.printf(
+                "Backup [%s] is %s: %s entries, %s MB\n",
+                backupDir, valid ? "valid" : "corrupted", entries.size(), bytes.get() / (1024 * 1024)
+        );
+        if (!valid) {
+            throw new IllegalStateException(String.format("Backup [%s] verification failed", backupDir));
+        }
+    }
+
+    private void verifyEntry(final BackupStorage storage,
+                             final String name,
+                             final Checksum expected) throws IOException {
+        final Optional<Path> file = storage.getFile(name);
+        final Checksum actual;
+        if (file.isPresent()) {
+            actual = BackupChecksums.compute(file.get());
+        } else {
+            try (InputStream input = storage.open(name)) {
+                actual = BackupChecksums.compute(input);
+            }
+        }
+        if (!expected.equals(actual)) {
+            throw new IOException(String.format(
+                    "Entry [%s] is corrupted: expected %s bytes with sha256 %s, found %s bytes with sha256 %s",
+                    name, expected.getSize(), expected.getSha256(), actual.getSize(), actual.getSha256()
+            ));
+        }
+    }
+
+    private void verifyBlob(final Path backupDir, final String hash) throws IOException {
+        final Checksum actual = BackupChecksums.compute(BlobStore.getBlobFile(backupDir, hash));
+        if (!hash.equals(actual.getSha256())) {
+            throw new IOException(String.format("Blob [%s] is corrupted: found sha256 %s", hash, actual.getSha256()));
+        }
+    }
+
+    private boolean verifyLive(final ServiceBuilder builder,
+                               final BackupStorage storage,
+                               final Set<Long> testCaseIds) throws Exception {
+        final TestCaseService tcService = builder.create(TestCaseService.class);
+        final long total = executeRequest(tcService.findByRql(allureProjectId, "true", 0, 1)).getTotalElements();
+        boolean valid = true;
+        if (total != testCaseIds.size()) {
+            System.out.printf(
+                    "Backup has %s test cases, project [%s] has %s\n", testCaseIds.size(), allureProjectId, total
+            );
+            valid = false;
+        }
+        valid &= invokeParallel("verify backup attachments", testCaseIds, (testCaseId) -> {
+            verifyAttachments(tcService, storage, testCaseId);
+        });
+        return valid;
+    }
+
+    private void verifyAttachments(final TestCaseService tcService,
+                                   final BackupStorage storage,
+                                   final Long testCaseId) throws IOException {
+        final TestCaseBackup backup = MAPPER.readValue(
+                storage.open(getTestCaseEntry(testCaseId)), TestCaseBackup.class
+        );
+        final Map<Long, TestCaseAttachment> live = getAll(
+                (page, size) -> tcService.getAttachments(testCaseId, page, size)
+        ).stream().collect(Collectors.toMap(TestCaseAttachment::getId, Function.identity(), (a, b) -> a));
+        final List<TestCaseAttachment> attachments = Optional.ofNullable(backup.getAttachments()).orElse(List.of());
+        for (TestCaseAttachment attachment : attachments) {
+            final TestCaseAttachment liveAttachment = live.get(attachment.getId());
+            if (Objects.isNull(liveAttachment)) {
+                throw new IOException(String.format(
+                        "Attachment [%s] of test case [%s] is not found in Allure TestOps",
+                        attachment.getId(), testCaseId
+                ));
+            }
+            final long size = storage.size(getTestCaseAttachmentEntry(testCaseId, attachment.getId()));
+            if (!Objects.equals(liveAttachment.getContentLength(), size)) {
+                throw new IOException(String.format(
+                        "Attachment [%s] of test case [%s] has %s bytes in backup and %s bytes in Allure TestOps",
+                        attachment.getId(), testCaseId, size, liveAttachment.getContentLength()
+                ));
+            }
+        }
+    }
+
+    private static Set<String> getBlobHashes(final BackupStorage storage, final Set<String> names) throws IOException {
+        final Set<String> hashes = new TreeSet<>();
+        for (String name : names) {
+            if (name.endsWith(BlobStore.REF_SUFFIX)) {
+                hashes.add(BlobStore.readRef(storage, name));
+            }
+        }
+        return hashes;
+    }
+
+    private static Set<Long> getTestCaseIds(final Set<String> names) {
+        return names.stream()
+                .filter(name -> name.startsWith(TEST_CASE_PREFIX) && name.endsWith("/" + TEST_CASE_FILE_NAME))
+                .map(name -> Long.valueOf(name.substring(TEST_CASE_PREFIX.length(), name.indexOf('/'))))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+}
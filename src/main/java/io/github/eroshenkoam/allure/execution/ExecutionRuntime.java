@@ -0,0 +1,196 @@
+package io.github.eroshenkoam.allure.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs per-item command work.
+ * <p>
+ * In {@link Mode#PLATFORM} mode items are processed by fixed pool of platform threads.
+ * In {@link Mode#VIRTUAL} mode every item gets its own virtual thread and total request
+ * concurrency is expected to be capped on client side, not by number of threads.
+ * <p>
+ * In platform mode tasks must not wait for other tasks submitted to the same runtime.
+ * <p>
+ * Attachment transfers run in separate transfer lane, so long downloads and uploads
+ * do not occupy threads of small metadata requests.
+ */
+public class ExecutionRuntime implements AutoCloseable {
+
+    private static final int PLATFORM_IN_FLIGHT_FACTOR = 2;
+    private static final int VIRTUAL_IN_FLIGHT_FACTOR = 16;
+
+    private final Mode mode;
+    private final int concurrency;
+    private final int maxInFlight;
+    private final int transferConcurrency;
+    private final ExecutorService executor;
+    private final ExecutorService transferExecutor;
+
+    public ExecutionRuntime(final Mode mode, final int concurrency) {
+        this(mode, concurrency, concurrency);
+    }
+
+    public ExecutionRuntime(final Mode mode, final int concurrency, final int transferConcurrency) {
+        this.mode = mode;
+        this.concurrency = concurrency;
+        this.transferConcurrency = transferConcurrency;
+        if (Mode.VIRTUAL.equals(mode)) {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+            this.transferExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            this.maxInFlight = concurrency * VIRTUAL_IN_FLIGHT_FACTOR;
+        } else {
+            this.executor = Executors.newFixedThreadPool(concurrency);
+            this.transferExecutor = Executors.newFixedThreadPool(transferConcurrency);
+            this.maxInFlight = concurrency * PLATFORM_IN_FLIGHT_FACTOR;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public int getTransferConcurrency() {
+        return transferConcurrency;
+    }
+
+    /**
+     * Executor of the transfer lane.
+     */
+    public ExecutorService getTransferExecutor() {
+        return transferExecutor;
+    }
+
+    public <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Processes items in parallel, keeping bounded number of items in flight.
+     * Items are pulled from iterable lazily, so it may be backed by paged source.
+     *
+     * @return number of failed items
+     */
+    public <T> int forEach(final String description,
+                           final Iterable<T> items,
+                           final Task<T> task) throws InterruptedException {
+        final Semaphore permits = new Semaphore(maxInFlight);
+        final AtomicInteger errors = new AtomicInteger();
+        try {
+            for (final T item : items) {
+                permits.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.run(item);
+                        } catch (Throwable e) {
+                            errors.incrementAndGet();
+                            System.out.printf("Task '%s' failed for [%s]: %s\n", description, item, e);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } finally {
+            permits.acquire(maxInFlight);
+            permits.release(maxInFlight);
+        }
+        return errors.get();
+    }
+
+    /**
+     * Creates pipeline running its stages on this runtime with the same in-flight bound as {@link #forEach}.
+     */
+    public <T> Pipeline<T, T> pipeline(final String description) {
+        return pipeline(description, executor);
+    }
+
+    /**
+     * Creates pipeline running its stages on given executor, e.g. lane of {@link FairScheduler} over this runtime.
+     */
+    public <T> Pipeline<T, T> pipeline(final String description, final Executor stageExecutor) {
+        return Pipeline.source(description, stageExecutor, maxInFlight);
+    }
+
+    /**
+     * Applies mapper to items in parallel and returns results in the order of items.
+     * Fails with the first error in the order of items.
+     */
+    public <T, R> List<R> map(final List<T> items, final Mapper<T, R> mapper) throws Exception {
+        final List<Future<R>> futures = new ArrayList<>(items.size());
+        for (final T item : items) {
+            futures.add(executor.submit(() -> mapper.apply(item)));
+        }
+        final List<R> results = new ArrayList<>(items.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        transferExecutor.shutdown();
+    }
+
+    public enum Mode {
+
+        PLATFORM,
+        VIRTUAL
+
+    }
+
+    @FunctionalInterface
+    public interface Task<T> {
+
+        void run(T item) throws Exception;
+
+    }
+
+    @FunctionalInterface
+    public interface Mapper<T, R> {
+
+        R apply(T item) throws Exception;
+
+    }
+
+}
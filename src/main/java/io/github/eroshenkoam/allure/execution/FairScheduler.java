@@ -0,0 +1,101 @@
+package io.github.eroshenkoam.allure.execution;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Shares bounded number of running tasks between lanes in round-robin order.
+ * <p>
+ * Every lane is an executor of its own. When more tasks are submitted than may run at once,
+ * the next task is taken from the next lane that has one, so lane with long queue does not
+ * delay tasks of other lanes. Idle lanes do not reserve anything, single busy lane may use
+ * all running slots.
+ */
+public class FairScheduler {
+
+    private final Executor executor;
+    private final int concurrency;
+
+    private final Queue<Lane> ready = new ArrayDeque<>();
+    private int running;
+
+    public FairScheduler(final Executor executor, final int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    public Lane lane(final String name) {
+        return new Lane(name);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Runnable task;
+            synchronized (this) {
+                if (running >= concurrency || ready.isEmpty()) {
+                    return;
+                }
+                final Lane lane = ready.poll();
+                task = lane.tasks.poll();
+                if (lane.tasks.isEmpty()) {
+                    lane.scheduled = false;
+                } else {
+                    ready.add(lane);
+                }
+                running++;
+            }
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    synchronized (this) {
+                        running--;
+                    }
+                    dispatch();
+                }
+            });
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("running %s of %s, %s lanes waiting", running, concurrency, ready.size());
+    }
+
+    /**
+     * Executor submitting tasks to the scheduler.
+     */
+    public final class Lane implements Executor {
+
+        private final String name;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+
+        private Lane(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            synchronized (FairScheduler.this) {
+                tasks.add(task);
+                if (!scheduled) {
+                    scheduled = true;
+                    ready.add(this);
+                }
+            }
+            dispatch();
+        }
+
+    }
+
+}
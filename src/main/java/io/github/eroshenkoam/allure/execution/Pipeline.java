@@ -0,0 +1,238 @@
+package io.github.eroshenkoam.allure.execution;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-stage processing of items with separate concurrency for every stage.
+ * <p>
+ * Every item passes stages in order, different items are processed by different stages at the same time.
+ * Stage may return {@code null} to finish item without passing it to the next stages.
+ * Stage tasks that exceed stage concurrency wait in stage queue without holding a thread.
+ * Total number of items inside pipeline is bounded, so the source is pulled only as fast as items
+ * leave the last stage. The source is iterated on its own feeder thread, because pulling the next item
+ * may block on listing requests.
+ *
+ * @param <S> source item type
+ * @param <T> output type of the last stage
+ */
+public final class Pipeline<S, T> {
+
+    private final String description;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final List<StageRunner> stages;
+
+    private volatile long startNanos;
+    private volatile long stopNanos;
+
+    private Pipeline(final String description,
+                     final Executor executor,
+                     final int maxInFlight,
+                     final List<StageRunner> stages) {
+        this.description = description;
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.stages = stages;
+    }
+
+    public static <S> Pipeline<S, S> source(final String description,
+                                            final Executor executor,
+                                            final int maxInFlight) {
+        return new Pipeline<>(description, executor, maxInFlight, new ArrayList<>());
+    }
+
+    public <R> Pipeline<S, R> stage(final String name, final int concurrency, final Stage<? super T, R> stage) {
+        return stage(name, concurrency, executor, stage);
+    }
+
+    /**
+     * Adds stage running on its own executor, e.g. transfer lane of the runtime.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<S, R> stage(final String name,
+                                    final int concurrency,
+                                    final Executor stageExecutor,
+                                    final Stage<? super T, R> stage) {
+        final List<StageRunner> next = new ArrayList<>(stages);
+        next.add(new StageRunner(name, concurrency, stageExecutor, item -> stage.apply((T) item)));
+        return new Pipeline<>(description, executor, maxInFlight, next);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Starts feeding items to the pipeline.
+     *
+     * @return future of number of failed items, completed when all items left the pipeline
+     */
+    public CompletableFuture<Integer> start(final Iterable<S> items) {
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final Thread feeder = new Thread(() -> {
+            try {
+                result.complete(feed(items));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, String.format("pipeline-%s", description));
+        feeder.setDaemon(true);
+        feeder.start();
+        return result;
+    }
+
+    /**
+     * Elapsed time of the last run.
+     */
+    public Duration getDuration() {
+        final long stop = stopNanos == 0 ? System.nanoTime() : stopNanos;
+        return Duration.ofNanos(startNanos == 0 ? 0 : stop - startNanos);
+    }
+
+    public List<String> getReport() {
+        final double seconds = Math.max(getDuration().toMillis(), 1) / 1000.0;
+        final List<String> report = new ArrayList<>();
+        for (StageRunner stage : stages) {
+            report.add(stage.getReport(seconds));
+        }
+        return Collections.unmodifiableList(report);
+    }
+
+    private int feed(final Iterable<S> items) throws InterruptedException {
+        final Semaphore permits = new Semaphore(maxInFlight);
+        final AtomicInteger errors = new AtomicInteger();
+        startNanos = System.nanoTime();
+        stopNanos = 0;
+        try {
+            for (final S item : items) {
+                permits.acquire();
+                CompletableFuture<Object> future = CompletableFuture.completedFuture(item);
+                for (StageRunner stage : stages) {
+                    future = future.thenCompose(value -> value == null
+                            ? CompletableFuture.completedFuture(null)
+                            : stage.submit(value));
+                }
+                future.whenComplete((value, error) -> {
+                    if (error != null) {
+                        errors.incrementAndGet();
+                        final Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        System.out.printf("Task '%s' failed for [%s]: %s\n", description, item, cause);
+                    }
+                    permits.release();
+                });
+            }
+        } finally {
+            permits.acquire(maxInFlight);
+            permits.release(maxInFlight);
+            stopNanos = System.nanoTime();
+        }
+        return errors.get();
+    }
+
+    /**
+     * Single stage of the pipeline.
+     */
+    @FunctionalInterface
+    public interface Stage<I, O> {
+
+        O apply(I item) throws Exception;
+
+    }
+
+    private static final class StageRunner {
+
+        private final String name;
+        private final int concurrency;
+        private final Executor executor;
+        private final Stage<Object, ?> stage;
+
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        private int running;
+        private int maxQueued;
+
+        private long completed;
+        private long failed;
+        private long busyNanos;
+
+        StageRunner(final String name,
+                    final int concurrency,
+                    final Executor executor,
+                    final Stage<Object, ?> stage) {
+            this.name = name;
+            this.concurrency = Math.max(1, concurrency);
+            this.executor = executor;
+            this.stage = stage;
+        }
+
+        CompletableFuture<Object> submit(final Object item) {
+            final CompletableFuture<Object> future = new CompletableFuture<>();
+            final Runnable task = () -> {
+                final long start = System.nanoTime();
+                boolean success = false;
+                try {
+                    future.complete(stage.apply(item));
+                    success = true;
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    finish(System.nanoTime() - start, success);
+                }
+            };
+            final boolean runNow;
+            synchronized (this) {
+                runNow = running < concurrency;
+                if (runNow) {
+                    running++;
+                } else {
+                    queue.add(task);
+                    maxQueued = Math.max(maxQueued, queue.size());
+                }
+            }
+            if (runNow) {
+                executor.execute(task);
+            }
+            return future;
+        }
+
+        private void finish(final long nanos, final boolean success) {
+            final Runnable next;
+            synchronized (this) {
+                busyNanos += nanos;
+                if (success) {
+                    completed++;
+                } else {
+                    failed++;
+                }
+                next = queue.poll();
+                if (next == null) {
+                    running--;
+                }
+            }
+            if (next != null) {
+                executor.execute(next);
+            }
+        }
+
+        synchronized String getReport(final double seconds) {
+            final long total = completed + failed;
+            return String.format(
+                    "stage '%s': %s items (%.1f/s), %s errors, avg %s ms, concurrency %s, max queued %s",
+                    name, completed, completed / seconds, failed,
+                    total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(busyNanos / total),
+                    concurrency, maxQueued
+            );
+        }
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.github.eroshenkoam.allure.backup;
+
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveBackupStorageTest {
+
+    private static final byte[] TEXT = "{\"name\":\"test case\",\"automated\":false}\n"
+            .repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] BINARY = randomBytes(100 * 1024);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReadEntriesAfterReopen() throws IOException {
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(dir)) {
+            create(storage, "tc-1/testcase.json", TEXT);
+            storage.write("tc-1/attachments/1", new Buffer().write(BINARY));
+            create(storage, "tc-2/testcase.json", new byte[0]);
+        }
+
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.open(dir)) {
+            assertEquals(List.of("tc-1/attachments/1", "tc-1/testcase.json"), storage.list("tc-1/"));
+            assertEquals(3, storage.list("").size());
+            assertTrue(storage.exists("tc-2/testcase.json"));
+            assertFalse(storage.exists("tc-3/testcase.json"));
+
+            assertArrayEquals(TEXT, read(storage, "tc-1/testcase.json"));
+            assertArrayEquals(BINARY, read(storage, "tc-1/attachments/1"));
+            assertArrayEquals(new byte[0], read(storage, "tc-2/testcase.json"));
+            assertEquals(TEXT.length, storage.size("tc-1/testcase.json"));
+            assertEquals(BINARY.length, storage.size("tc-1/attachments/1"));
+        }
+    }
+
+    @Test
+    void shouldCompressOnlyCompressibleEntries() throws IOException {
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(dir)) {
+            create(storage, "tc-1/testcase.json", TEXT);
+        }
+        assertTrue(Files.size(dir.resolve(ArchiveBackupStorage.FILE_NAME)) < TEXT.length / 10);
+
+        final Path binaryDir = dir.resolve("binary");
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(binaryDir)) {
+            create(storage, "tc-1/attachments/1", BINARY);
+        }
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.open(binaryDir)) {
+            assertArrayEquals(BINARY, read(storage, "tc-1/attachments/1"));
+        }
+        assertTrue(Files.size(binaryDir.resolve(ArchiveBackupStorage.FILE_NAME)) < BINARY.length + 1024);
+    }
+
+    @Test
+    void shouldLinkEntriesFromAnotherArchive() throws IOException {
+        final Path baseDir = dir.resolve("base");
+        final Path nextDir = dir.resolve("next");
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(baseDir)) {
+            create(storage, "tc-1/testcase.json", TEXT);
+            create(storage, "tc-1/attachments/1", BINARY);
+            create(storage, "tc-2/testcase.json", TEXT);
+        }
+
+        final byte[] changed = "{\"name\":\"changed\"}".getBytes(StandardCharsets.UTF_8);
+        try (ArchiveBackupStorage base = ArchiveBackupStorage.open(baseDir);
+             ArchiveBackupStorage next = ArchiveBackupStorage.create(nextDir)) {
+            create(next, "tc-2/testcase.json", changed);
+            next.link(base, "tc-1/");
+        }
+
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.open(nextDir)) {
+            assertEquals(
+                    List.of("tc-1/attachments/1", "tc-1/testcase.json", "tc-2/testcase.json"),
+                    storage.list("")
+            );
+            assertArrayEquals(TEXT, read(storage, "tc-1/testcase.json"));
+            assertArrayEquals(BINARY, read(storage, "tc-1/attachments/1"));
+            assertArrayEquals(changed, read(storage, "tc-2/testcase.json"));
+            assertEquals(TEXT.length, storage.size("tc-1/testcase.json"));
+        }
+    }
+
+    @Test
+    void shouldKeepPreviousArchiveWhenDiscarded() throws IOException {
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(dir)) {
+            create(storage, "tc-1/testcase.json", TEXT);
+        }
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(dir)) {
+            create(storage, "tc-2/testcase.json", TEXT);
+            storage.discard();
+        }
+
+        assertFalse(Files.exists(dir.resolve(ArchiveBackupStorage.FILE_NAME + ".tmp")));
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.open(dir)) {
+            assertEquals(List.of("tc-1/testcase.json"), storage.list(""));
+            assertArrayEquals(TEXT, read(storage, "tc-1/testcase.json"));
+        }
+    }
+
+    @Test
+    void shouldNotWriteToOpenedArchive() throws IOException {
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.create(dir)) {
+            create(storage, "tc-1/testcase.json", TEXT);
+        }
+        try (ArchiveBackupStorage storage = ArchiveBackupStorage.open(dir)) {
+            assertThrows(IOException.class, () -> storage.create("tc-2/testcase.json"));
+        }
+    }
+
+    @Test
+    void shouldRejectFileWithoutTrailer() throws IOException {
+        Files.write(dir.resolve(ArchiveBackupStorage.FILE_NAME), TEXT);
+        assertThrows(IOException.class, () -> ArchiveBackupStorage.open(dir));
+    }
+
+    private static void create(final BackupStorage storage, final String name, final byte[] content)
+            throws IOException {
+        try (OutputStream output = storage.create(name)) {
+            output.write(content);
+        }
+    }
+
+    private static byte[] read(final BackupStorage storage, final String name) throws IOException {
+        try (InputStream input = storage.open(name)) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static byte[] randomBytes(final int size) {
+        final byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+}
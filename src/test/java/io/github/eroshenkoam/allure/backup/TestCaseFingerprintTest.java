@@ -0,0 +1,99 @@
+package io.github.eroshenkoam.allure.backup;
+
+import io.github.eroshenkoam.allure.backup.TestCaseFingerprint.Section;
+import io.github.eroshenkoam.allure.client.dto.Issue;
+import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
+import io.github.eroshenkoam.allure.client.dto.ScenarioStep;
+import io.github.eroshenkoam.allure.client.dto.TestCaseAttachment;
+import io.github.eroshenkoam.allure.client.dto.TestCasePatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestCaseFingerprintTest {
+
+    @Test
+    void shouldNotDependOnAssignedIds() {
+        final TestCaseFingerprint backup = TestCaseFingerprint.of(
+                patch(), List.of(issue(1L)), scenario(1L),
+                keys(attachment(1L, "screen.png", 1024L), attachment(2L, "log.txt", 512L))
+        );
+        final TestCaseFingerprint live = TestCaseFingerprint.of(
+                patch(), List.of(issue(21L)), scenario(31L),
+                keys(attachment(32L, "log.txt", 512L), attachment(31L, "screen.png", 1024L))
+        );
+
+        assertTrue(backup.diff(live).isEmpty());
+    }
+
+    @Test
+    void shouldDifferWhenAttachmentKeyChanges() {
+        final TestCaseFingerprint backup = TestCaseFingerprint.of(
+                patch(), List.of(issue(1L)), scenario(1L),
+                keys(attachment(1L, "screen.png", 1024L), attachment(2L, "log.txt", 512L))
+        );
+        final TestCaseFingerprint live = TestCaseFingerprint.of(
+                patch(), List.of(issue(1L)), scenario(1L),
+                keys(attachment(1L, "screen.png", 1024L), attachment(2L, "log.txt", 256L))
+        );
+
+        assertEquals(EnumSet.of(Section.ATTACHMENTS), backup.diff(live));
+    }
+
+    @Test
+    void shouldDifferInScenarioWhenReferencedAttachmentChanges() {
+        final TestCaseFingerprint backup = TestCaseFingerprint.of(
+                patch(), List.of(), scenario(1L), keys(attachment(1L, "screen.png", 1024L))
+        );
+        final TestCaseFingerprint live = TestCaseFingerprint.of(
+                patch(), List.of(), scenario(1L), keys(attachment(1L, "screen.png", 2048L))
+        );
+
+        assertEquals(EnumSet.of(Section.ATTACHMENTS, Section.SCENARIO), backup.diff(live));
+    }
+
+    @Test
+    void shouldDifferInMetadataAndIssues() {
+        final TestCaseFingerprint backup = TestCaseFingerprint.of(patch(), List.of(issue(1L)), null, Map.of());
+        final TestCaseFingerprint live = TestCaseFingerprint.of(
+                patch().setName("Renamed"), List.of(issue(1L).setName("PROJ-2")), null, Map.of()
+        );
+
+        assertEquals(EnumSet.of(Section.METADATA, Section.ISSUES), backup.diff(live));
+    }
+
+    private static TestCasePatch patch() {
+        return new TestCasePatch().setName("Login").setDescription("User logs in").setAutomated(false);
+    }
+
+    private static Issue issue(final Long id) {
+        return new Issue().setId(id).setName("PROJ-1").setIntegrationId(3L);
+    }
+
+    private static TestCaseAttachment attachment(final Long id, final String name, final Long length) {
+        return new TestCaseAttachment().setId(id).setName(name).setContentType("text/plain").setContentLength(length);
+    }
+
+    private static Map<Long, String> keys(final TestCaseAttachment... attachments) {
+        final Map<Long, String> result = new HashMap<>();
+        for (TestCaseAttachment attachment : attachments) {
+            result.put(attachment.getId(), TestCaseFingerprint.getAttachmentKey(attachment, null));
+        }
+        return result;
+    }
+
+    private static ScenarioNormalized scenario(final Long attachmentId) {
+        final Map<Long, ScenarioStep> steps = new HashMap<>();
+        steps.put(1L, new ScenarioStep().setId(1L).setBody("Open login page").setAttachmentId(attachmentId));
+        return new ScenarioNormalized()
+                .setRoot(new ScenarioStep().setChildren(List.of(1L)))
+                .setScenarioSteps(steps);
+    }
+
+}
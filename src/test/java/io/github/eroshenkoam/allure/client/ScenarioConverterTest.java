@@ -0,0 +1,67 @@
+package io.github.eroshenkoam.allure.client;
+
+import io.github.eroshenkoam.allure.client.dto.ScenarioNormalized;
+import io.github.eroshenkoam.allure.client.dto.ScenarioStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.AttachmentStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.BodyStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.ExpectedBodyStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.SharedStepStep;
+import io.github.eroshenkoam.allure.client.dto.scenario.TestCaseScenarioV2;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScenarioConverterTest {
+
+    @Test
+    void shouldConvertNormalizedScenario() {
+        final Map<Long, ScenarioStep> steps = new HashMap<>();
+        steps.put(1L, new ScenarioStep().setId(1L).setBody("Open page").setAttachmentId(100L)
+                .setChildren(List.of(3L)).setExpectedResultId(10L));
+        steps.put(2L, new ScenarioStep().setId(2L).setSharedStepId(7L));
+        steps.put(3L, new ScenarioStep().setId(3L).setBody("Fill form"));
+        steps.put(5L, new ScenarioStep().setId(5L).setBody("Close page").setExpectedResult("Page is closed"));
+        steps.put(10L, new ScenarioStep().setId(10L).setChildren(List.of(11L, 12L)));
+        steps.put(11L, new ScenarioStep().setId(11L).setBody("Page is open").setChildren(List.of(13L)));
+        steps.put(12L, new ScenarioStep().setId(12L).setBody("Title is shown"));
+        steps.put(13L, new ScenarioStep().setId(13L).setAttachmentId(101L));
+        final ScenarioNormalized scenario = new ScenarioNormalized()
+                .setRoot(new ScenarioStep().setChildren(List.of(1L, 2L, 5L)))
+                .setScenarioSteps(steps);
+
+        final TestCaseScenarioV2 result = ScenarioConverter.toScenarioV2(scenario);
+
+        assertEquals(List.of(
+                new AttachmentStep().setAttachmentId(100L),
+                new BodyStep()
+                        .setBody("Open page")
+                        .setSteps(List.of(new BodyStep()
+                                .setBody("Fill form")
+                                .setSteps(List.of())
+                                .setExpectedResultSteps(List.of())))
+                        .setExpectedResultSteps(List.of(
+                                new ExpectedBodyStep().setBody("Page is open"),
+                                new AttachmentStep().setAttachmentId(101L),
+                                new ExpectedBodyStep().setBody("Title is shown")
+                        )),
+                new SharedStepStep().setSharedStepId(7L),
+                new BodyStep()
+                        .setBody("Close page")
+                        .setSteps(List.of())
+                        .setExpectedResultSteps(List.of(new ExpectedBodyStep().setBody("Page is closed")))
+        ), result.getSteps());
+        assertEquals(result.getSteps(), ScenarioConverter.toSharedStepScenario(scenario).getSteps());
+    }
+
+    @Test
+    void shouldConvertEmptyScenario() {
+        assertTrue(ScenarioConverter.toScenarioV2(null).getSteps().isEmpty());
+        assertTrue(ScenarioConverter.toScenarioV2(new ScenarioNormalized()).getSteps().isEmpty());
+    }
+
+}